@@ -0,0 +1,107 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations every compared collection has, including ArrayDeque which is not a List: iterating over all elements,
+ * searching for one, growing from the default capacity, and bulk removal and appending
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class CollectionBenchmarks {
+
+    @Param({"ArrayList", "ArrayDeque", "LinkedList", "IgushArray"})
+    public String implementation;
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private Collection<Integer> collection;
+    private Integer[] values;
+    private List<Integer> tenth; // the values removed by removeIfAddAll
+    private Random rand;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = Implementations.shuffledValues(size);
+        collection = Implementations.create(implementation);
+        Collections.addAll(collection, values);
+        tenth = new ArrayList<>();
+        for (Integer value : values) {
+            if (value % 10 == 0) {
+                tenth.add(value);
+            }
+        }
+        rand = new Random(Implementations.SEED);
+    }
+
+    /**
+     * Measure iterating over every element
+     */
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for (Integer e : collection) {
+            bh.consume(e);
+        }
+    }
+
+    /**
+     * Measure searching for a random element, which is indexOf for the lists
+     */
+    @Benchmark
+    public boolean contains() {
+        return collection.contains(values[rand.nextInt(size)]);
+    }
+
+    /**
+     * Measure appending size elements to a collection of the default initial capacity
+     */
+    @Benchmark
+    public Collection<Integer> growFromDefaultCapacity() {
+        Collection<Integer> grown = Implementations.create(implementation);
+        for (Integer value : values) {
+            grown.add(value);
+        }
+        return grown;
+    }
+
+    /**
+     * Measure removing a tenth of the elements with removeIf and appending them again with addAll
+     */
+    @Benchmark
+    public boolean removeIfAddAll() {
+        collection.removeIf(e -> e % 10 == 0);
+        return collection.addAll(tenth);
+    }
+}
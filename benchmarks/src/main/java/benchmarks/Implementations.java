@@ -0,0 +1,81 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import stonet2000.igusharray.IgushArray;
+
+import java.util.*;
+
+/**
+ * Creates the collections compared by the benchmarks from the name in their implementation parameter, and the
+ * values put in them
+ */
+final class Implementations {
+
+    static final int SEED = 31415926;
+
+    private Implementations() {
+    }
+
+    /**
+     * Returns a new, empty, collection of the named implementation with its default initial capacity
+     */
+    static Collection<Integer> create(String name) {
+        switch (name) {
+            case "ArrayList":
+                return new ArrayList<>();
+            case "ArrayDeque":
+                return new ArrayDeque<>();
+            case "LinkedList":
+                return new LinkedList<>();
+            case "IgushArray":
+                return new IgushArray<>();
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + name);
+        }
+    }
+
+    /**
+     * Returns a new, empty, list of the named implementation, which must be a List
+     */
+    static List<Integer> createList(String name) {
+        Collection<Integer> collection = create(name);
+        if (!(collection instanceof List))
+            throw new IllegalArgumentException(name + " is not a List");
+        return (List<Integer>) collection;
+    }
+
+    /**
+     * Returns the values 0 to size - 1 in a random order, the same one for every run
+     */
+    static Integer[] shuffledValues(int size) {
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, new Random(SEED));
+        return values.toArray(new Integer[0]);
+    }
+}
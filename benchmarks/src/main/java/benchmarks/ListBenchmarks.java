@@ -0,0 +1,99 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations by index on the compared Lists. Every benchmark that inserts also removes as many elements, so the size
+ * stays the same
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ListBenchmarks {
+
+    @Param({"ArrayList", "LinkedList", "IgushArray"})
+    public String implementation;
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<Integer> list;
+    private Integer[] values;
+    private List<Integer> batch; // inserted and removed again by addAllRemoveRange
+    private Random rand;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = Implementations.shuffledValues(size);
+        list = Implementations.createList(implementation);
+        Collections.addAll(list, values);
+        batch = new ArrayList<>(Arrays.asList(values).subList(0, size / 100));
+        rand = new Random(Implementations.SEED);
+    }
+
+    /**
+     * Measure inserting an element at a random index and removing the one at another
+     */
+    @Benchmark
+    public Integer insertRemoveMiddle() {
+        list.add(rand.nextInt(size), values[0]);
+        return list.remove(rand.nextInt(size));
+    }
+
+    /**
+     * Measure getting the element at a random index
+     */
+    @Benchmark
+    public Integer get() {
+        return list.get(rand.nextInt(size));
+    }
+
+    /**
+     * Measure finding the index of a random element
+     */
+    @Benchmark
+    public int indexOf() {
+        return list.indexOf(values[rand.nextInt(size)]);
+    }
+
+    /**
+     * Measure inserting a hundredth of the size with addAll at a random index and removing it again with removeRange,
+     * through clear on a subList
+     */
+    @Benchmark
+    public int addAllRemoveRange() {
+        int index = rand.nextInt(size);
+        list.addAll(index, batch);
+        list.subList(index, index + batch.size()).clear();
+        return list.size();
+    }
+}
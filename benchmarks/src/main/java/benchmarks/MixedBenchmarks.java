@@ -0,0 +1,73 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A mix of reads and writes at random indices of the compared Lists: readPercent of the operations get an element,
+ * the others insert an element and remove one, so the size stays the same
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MixedBenchmarks {
+
+    @Param({"ArrayList", "LinkedList", "IgushArray"})
+    public String implementation;
+    @Param({"10000", "1000000"})
+    public int size;
+    @Param({"50", "90", "99"})
+    public int readPercent;
+
+    private List<Integer> list;
+    private Integer value = 42;
+    private Random rand;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        list = Implementations.createList(implementation);
+        Collections.addAll(list, Implementations.shuffledValues(size));
+        rand = new Random(Implementations.SEED);
+    }
+
+    /**
+     * Measure one operation of the mix
+     */
+    @Benchmark
+    public Integer mixed() {
+        if (rand.nextInt(100) < readPercent) {
+            return list.get(rand.nextInt(size));
+        }
+        list.add(rand.nextInt(size), value);
+        return list.remove(rand.nextInt(size));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting the compared Lists. The elements are put back in the same shuffled order before every sort, which takes
+ * long enough for the per invocation setup not to skew the timing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SortBenchmarks {
+
+    @Param({"ArrayList", "LinkedList", "IgushArray"})
+    public String implementation;
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<Integer> list;
+    private Integer[] values;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = Implementations.shuffledValues(size);
+        list = Implementations.createList(implementation);
+        Collections.addAll(list, values);
+    }
+
+    @Setup(Level.Invocation)
+    public void shuffle() {
+        ListIterator<Integer> itr = list.listIterator();
+        for (Integer value : values) {
+            itr.next();
+            itr.set(value);
+        }
+    }
+
+    /**
+     * Measure sorting by the natural order
+     */
+    @Benchmark
+    public List<Integer> sort() {
+        list.sort(null);
+        return list;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.util.function.Consumer;
+
+/**
+ * A block of a TieredIgushArray with a fixed capacity, either a FixedDeque holding the elements or a ring of smaller
+ * blocks. The methods have the meaning they have on FixedDeque: fixedAdd, pushFront and add return false when the
+ * block is full, and shiftUp and shiftDown may only be used when it is full.
+ *
+ * @param <E> the type of elements in this block
+ */
+interface Block<E> {
+
+  int size();
+
+  int capacity();
+
+  boolean isFull();
+
+  E get(int index);
+
+  E set(int index, E element);
+
+  boolean fixedAdd(int index, E element);
+
+  E remove(int index);
+
+  boolean add(E element);
+
+  boolean pushFront(E element);
+
+  E pop();
+
+  E popFront();
+
+  E shiftUp(E element);
+
+  E shiftDown(E element);
+
+  void clear();
+
+  void forEach(Consumer<? super E> action);
+}
@@ -0,0 +1,683 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+/**
+ * A thread safe IgushArray in which the FixedDeques are guarded by striped StampedLocks, so that threads working on
+ * different stripes do not wait for each other, unlike an IgushArray wrapped in Collections.synchronizedList. Each
+ * FixedDeque has a stripe of its own until there are MAX_STRIPES of them, after which each stripe guards a run of
+ * consecutive FixedDeques, which bounds the number of locks a cascade takes.
+ *
+ * get reads its FixedDeque under an optimistic stamp and only takes the read lock if the stamp fails to validate.
+ * add and remove write lock the stripes from the one holding index to the one holding the end of the list, which
+ * cover the FixedDeques the shiftUp or shiftDown cascade passes through, always in ascending order so that they
+ * cannot deadlock. Growing the capacity write locks every stripe and then replaces all of the FixedDeques.
+ *
+ * Iterators, toArray, equals and the other bulk reads work on a consistent snapshot taken under the read locks of
+ * every stripe, and the iterators do not support changing the list. remove(Object), removeIf, removeAll, retainAll
+ * and clearing a subList do not go through an iterator, but write lock the stripes from the first one they may
+ * change to the one holding the end of the list. Every structural change holds the lock of the stripe holding the end
+ * of the list, under which it counts itself in modCount, so subList views are fail-fast. As with a synchronized list,
+ * a sequence of calls that must see no changes in between needs to be synchronized externally.
+ *
+ * @param <E> the type of elements in this list
+ */
+public class ConcurrentIgushArray<E> extends AbstractList<E> implements List<E>, RandomAccess {
+
+  private static final int MAX_STRIPES = 64; // the number of locks at which FixedDeques start sharing them
+  private volatile Blocks<E> blocks; // the FixedDeques and their locks, replaced as a whole when growing
+  private volatile int size; // only changed while holding the lock of the stripe holding index size
+
+  /**
+   * The FixedDeques of one capacity, all of capacity deqCapacity, and the locks of their stripes
+   */
+  private static final class Blocks<E> {
+    final int deqCapacity;
+    final int capacity;
+    final FixedDeque<E>[] deques;
+    final int dequesPerStripe;
+    final StampedLock[] locks;
+
+    @SuppressWarnings("unchecked")
+    Blocks(int minCapacity) {
+      deqCapacity = Math.max(1, (int) Math.ceil(Math.sqrt(minCapacity)));
+      int listCapacity = (minCapacity + deqCapacity - 1) / deqCapacity;
+      capacity = listCapacity * deqCapacity;
+      deques = (FixedDeque<E>[]) new FixedDeque<?>[listCapacity];
+      for (int i = 0; i < listCapacity; i++) {
+        deques[i] = new FixedDeque<>(deqCapacity);
+      }
+      dequesPerStripe = (listCapacity + MAX_STRIPES - 1) / MAX_STRIPES;
+      locks = new StampedLock[(listCapacity + dequesPerStripe - 1) / dequesPerStripe];
+      for (int i = 0; i < locks.length; i++) {
+        locks[i] = new StampedLock();
+      }
+    }
+
+    // the FixedDeque holding index, or the last one if index is the capacity
+    int listIndex(int index) {
+      return Math.min(index / deqCapacity, deques.length - 1);
+    }
+
+    // the stripe holding index, or the last one if index is the capacity
+    int stripe(int index) {
+      return listIndex(index) / dequesPerStripe;
+    }
+  }
+
+  /**
+   * Constructs an empty ConcurrentIgushArray with initial capacity of 10
+   */
+  public ConcurrentIgushArray() {
+    this(10);
+  }
+
+  /**
+   * Constructs an empty ConcurrentIgushArray with the specified initial capacity, rounded up to a multiple of the
+   * FixedDeque capacity.
+   *
+   * @param initialCapacity
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is not positive
+   */
+  public ConcurrentIgushArray(int initialCapacity) {
+    if (initialCapacity <= 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    blocks = new Blocks<>(initialCapacity);
+  }
+
+  /**
+   * Constructs a ConcurrentIgushArray containing the elements of the specified collection, in the order they are
+   * returned by the collection's iterator
+   *
+   * @param c the collection whose elements are to be placed into this list
+   * @throws NullPointerException if the specified collection is null
+   */
+  public ConcurrentIgushArray(Collection<? extends E> c) {
+    this(Math.max(1, c.size()));
+    for (E element : c) {
+      add(element);
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the current allocated capacity of the ConcurrentIgushArray
+   *
+   * @return the capacity
+   */
+  public int capacity() {
+    return blocks.capacity;
+  }
+
+  /**
+   * Returns the element at the specified position. The FixedDeque holding it is read under an optimistic stamp,
+   * which only falls back to the read lock if a writer got in the way.
+   *
+   * @param index index of the element to return
+   * @return the element at the specified position
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    if (index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    for (;;) {
+      Blocks<E> b = blocks;
+      int listIndex = index / b.deqCapacity;
+      if (listIndex >= b.deques.length) {
+        if (b == blocks)
+          throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+        continue;
+      }
+      StampedLock lock = b.locks[listIndex / b.dequesPerStripe];
+      FixedDeque<E> deque = b.deques[listIndex];
+      int deqIndex = index - listIndex * b.deqCapacity;
+      long stamp = lock.tryOptimisticRead();
+      if (stamp != 0) {
+        // size can only fall to index or below by removing from this stripe or one before it, which takes its lock
+        boolean inRange = index < size;
+        Object element = deque.elementData[deque.physicalIndex(deqIndex)];
+        if (lock.validate(stamp) && b == blocks) {
+          if (!inRange)
+            throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+          return (E) element;
+        }
+      }
+      stamp = lock.readLock();
+      try {
+        if (b != blocks)
+          continue;
+        rangeCheck(index);
+        return deque.get(deqIndex);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+  }
+
+  /**
+   * Replaces the element at the specified position, write locking only the stripe holding it.
+   *
+   * @param index   index of the element to replace
+   * @param element element to be stored at the specified position
+   * @return the element previously at the specified position
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  @Override
+  public E set(int index, E element) {
+    if (index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    for (;;) {
+      Blocks<E> b = blocks;
+      int listIndex = b.listIndex(index);
+      StampedLock lock = b.locks[listIndex / b.dequesPerStripe];
+      long stamp = lock.writeLock();
+      try {
+        if (b != blocks)
+          continue;
+        rangeCheck(index);
+        return b.deques[listIndex].set(index - listIndex * b.deqCapacity, element);
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Appends the specified element to the end of this list, locking only the stripe holding the end.
+   *
+   * @param element element to be appended to this list
+   * @return true
+   */
+  @Override
+  public boolean add(E element) {
+    for (;;) {
+      Blocks<E> b = blocks;
+      int from = b.stripe(size);
+      long[] stamps = lockRange(b, from);
+      if (stamps == null)
+        continue;
+      boolean full = false;
+      try {
+        // the list may have shrunk past the stripe locked before size was stable
+        if (b.stripe(size) < from)
+          continue;
+        if (size == b.capacity) {
+          full = true;
+        } else {
+          b.deques[b.listIndex(size)].add(element);
+          modCount++;
+          size++;
+          return true;
+        }
+      } finally {
+        unlockRange(b, from, stamps);
+      }
+      if (full)
+        grow(b);
+    }
+  }
+
+  /**
+   * Inserts the specified element at the specified position, shifting the elements after it up one position. The
+   * stripes from the one holding index to the one holding the end of the list are write locked in ascending order.
+   *
+   * @param index   index at which the specified element is to be inserted
+   * @param element element to be inserted
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  @Override
+  public void add(int index, E element) {
+    if (index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    for (;;) {
+      Blocks<E> b = blocks;
+      int from = b.stripe(index);
+      long[] stamps = lockRange(b, from);
+      if (stamps == null)
+        continue;
+      boolean full = false;
+      try {
+        rangeCheckForAdd(index);
+        if (size == b.capacity) {
+          full = true;
+        } else {
+          int listIndex = b.listIndex(index);
+          FixedDeque<E> deque = b.deques[listIndex];
+          int deqIndex = index - listIndex * b.deqCapacity;
+          if (!deque.fixedAdd(deqIndex, element)) {
+            E removedElement = deque.remove(deque.size() - 1);
+            deque.fixedAdd(deqIndex, element);
+            shiftUp(b, listIndex + 1, removedElement);
+          }
+          modCount++;
+          size++;
+          return;
+        }
+      } finally {
+        unlockRange(b, from, stamps);
+      }
+      if (full)
+        grow(b);
+    }
+  }
+
+  /**
+   * Removes the element at the specified position, shifting the elements after it down one position. The
+   * stripes from the one holding index to the one holding the end of the list are write locked in ascending order.
+   *
+   * @param index the index of the element to be removed
+   * @return the element that was removed from the list
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  @Override
+  public E remove(int index) {
+    if (index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    for (;;) {
+      Blocks<E> b = blocks;
+      int from = b.stripe(index);
+      long[] stamps = lockRange(b, from);
+      if (stamps == null)
+        continue;
+      try {
+        rangeCheck(index);
+        int listIndex = b.listIndex(index);
+        E removedElement = b.deques[listIndex].remove(index - listIndex * b.deqCapacity);
+        shiftDown(b, listIndex + 1, b.listIndex(size - 1));
+        modCount++;
+        size--;
+        return removedElement;
+      } finally {
+        unlockRange(b, from, stamps);
+      }
+    }
+  }
+
+  /**
+   * Removes all of the elements from this list, write locking every stripe
+   */
+  @Override
+  public void clear() {
+    for (;;) {
+      Blocks<E> b = blocks;
+      long[] stamps = lockAll(b);
+      if (stamps == null)
+        continue;
+      try {
+        for (FixedDeque<E> deque : b.deques) {
+          deque.clear();
+        }
+        modCount++;
+        size = 0;
+        return;
+      } finally {
+        unlockRange(b, 0, stamps);
+      }
+    }
+  }
+
+  /**
+   * Removes the first occurrence of the specified element, if it is present. As its position is not known before
+   * searching, every stripe up to the one holding the end of the list is write locked.
+   *
+   * @param o element to be removed from this list, if present
+   * @return true if this list contained the specified element
+   */
+  @Override
+  public boolean remove(Object o) {
+    for (;;) {
+      Blocks<E> b = blocks;
+      long[] stamps = lockRange(b, 0);
+      if (stamps == null)
+        continue;
+      try {
+        int index = indexOfLocked(b, o);
+        if (index < 0)
+          return false;
+        int listIndex = b.listIndex(index);
+        b.deques[listIndex].remove(index - listIndex * b.deqCapacity);
+        shiftDown(b, listIndex + 1, b.listIndex(size - 1));
+        modCount++;
+        size--;
+        return true;
+      } finally {
+        unlockRange(b, 0, stamps);
+      }
+    }
+  }
+
+  /**
+   * Removes all of the elements of this list that satisfy the given predicate, write locking every stripe up to the
+   * one holding the end of the list. The filter is called while holding the locks, so it must not use this list.
+   *
+   * @param filter a predicate which returns true for elements to be removed
+   * @return true if any elements were removed
+   * @throws NullPointerException if the specified filter is null
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter) {
+    Objects.requireNonNull(filter);
+    return removeMatching(0, Integer.MAX_VALUE, filter);
+  }
+
+  /**
+   * Removes all of the elements of this list that are contained in the specified collection, see
+   * {@link #removeIf(Predicate)}
+   *
+   * @param c collection containing elements to be removed from this list
+   * @return true if this list changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   */
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    Objects.requireNonNull(c);
+    return removeMatching(0, Integer.MAX_VALUE, c::contains);
+  }
+
+  /**
+   * Retains only the elements of this list that are contained in the specified collection, see
+   * {@link #removeIf(Predicate)}
+   *
+   * @param c collection containing elements to be retained in this list
+   * @return true if this list changed as a result of the call
+   * @throws NullPointerException if the specified collection is null
+   */
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    Objects.requireNonNull(c);
+    return removeMatching(0, Integer.MAX_VALUE, e -> !c.contains(e));
+  }
+
+  /**
+   * Removes the elements from fromIndex, inclusive, to toIndex, exclusive, write locking the stripes from the one
+   * holding fromIndex to the one holding the end of the list. Used by clear on a subList.
+   *
+   * @param fromIndex index of first element to be removed
+   * @param toIndex   index after last element to be removed
+   */
+  @Override
+  protected void removeRange(int fromIndex, int toIndex) {
+    if (fromIndex < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(fromIndex));
+    removeMatching(fromIndex, toIndex, e -> true);
+  }
+
+  /**
+   * Returns an array containing all of the elements in this list in proper sequence, copied under the read locks of
+   * every stripe so that it is a consistent snapshot of the list.
+   *
+   * @return an array containing all of the elements in this list in proper sequence
+   */
+  @Override
+  public Object[] toArray() {
+    for (;;) {
+      Blocks<E> b = blocks;
+      long[] stamps = new long[b.locks.length];
+      for (int i = 0; i < stamps.length; i++) {
+        stamps[i] = b.locks[i].readLock();
+      }
+      try {
+        if (b != blocks)
+          continue;
+        Object[] a = new Object[size];
+        int pos = 0;
+        for (int i = 0; pos < a.length; i++) {
+          FixedDeque<E> deque = b.deques[i];
+          deque.copyTo(0, a, pos, deque.size);
+          pos += deque.size;
+        }
+        return a;
+      } finally {
+        for (int i = 0; i < stamps.length; i++) {
+          b.locks[i].unlockRead(stamps[i]);
+        }
+      }
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T[] toArray(T[] a) {
+    Object[] snapshot = toArray();
+    if (a.length < snapshot.length)
+      return (T[]) Arrays.copyOf(snapshot, snapshot.length, a.getClass());
+    System.arraycopy(snapshot, 0, a, 0, snapshot.length);
+    if (a.length > snapshot.length)
+      a[snapshot.length] = null;
+    return a;
+  }
+
+  /**
+   * Returns an iterator over a snapshot of this list, see {@link #toArray()}. It never throws a
+   * ConcurrentModificationException and does not support remove.
+   *
+   * @return an iterator over a snapshot of the elements in this list
+   */
+  @Override
+  public Iterator<E> iterator() {
+    return listIterator(0);
+  }
+
+  @Override
+  public ListIterator<E> listIterator() {
+    return listIterator(0);
+  }
+
+  /**
+   * Returns a list iterator over a snapshot of this list, starting at the specified position, see
+   * {@link #toArray()}. It does not support remove, set or add.
+   *
+   * @param index index of the first element to be returned from the list iterator
+   * @return a list iterator over a snapshot of the elements in this list
+   * @throws IndexOutOfBoundsException if the index is out of range of the snapshot
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public ListIterator<E> listIterator(int index) {
+    List<E> snapshot = (List<E>) Arrays.asList(toArray());
+    return Collections.unmodifiableList(snapshot).listIterator(index);
+  }
+
+  /**
+   * Write locks the stripes of b in ascending order from the one at from until holding the one holding index size,
+   * after which size cannot change until they are unlocked, as changing it takes that lock.
+   *
+   * @return the stamps of the stripes locked, starting with the one at from and followed by zeros if there is room
+   * left, or null if b was replaced by growing, in which case nothing is left locked
+   */
+  private long[] lockRange(Blocks<E> b, int from) {
+    long[] stamps = new long[Math.max(1, b.stripe(size) - from + 1)];
+    for (int i = from; ; i++) {
+      if (i - from == stamps.length)
+        stamps = Arrays.copyOf(stamps, stamps.length * 2); // the list grew past the stripes expected
+      stamps[i - from] = b.locks[i].writeLock();
+      if (b != blocks) {
+        unlockRange(b, from, stamps);
+        return null;
+      }
+      if (i >= b.stripe(size))
+        return stamps;
+    }
+  }
+
+  /**
+   * Write locks every stripe of b in ascending order, returning their stamps, or null with nothing locked if b was
+   * replaced
+   */
+  private long[] lockAll(Blocks<E> b) {
+    long[] stamps = new long[b.locks.length];
+    for (int i = 0; i < stamps.length; i++) {
+      stamps[i] = b.locks[i].writeLock();
+    }
+    if (b != blocks) {
+      unlockRange(b, 0, stamps);
+      return null;
+    }
+    return stamps;
+  }
+
+  // releases the write locks taken by lockRange or lockAll, stamps[j] being that of the stripe at from + j
+  private static <E> void unlockRange(Blocks<E> b, int from, long[] stamps) {
+    for (int j = 0; j < stamps.length && stamps[j] != 0; j++) {
+      b.locks[from + j].unlockWrite(stamps[j]);
+    }
+  }
+
+  /**
+   * Removes the elements from index from to index to, or the end of the list, that satisfy filter. The stripes from
+   * the one holding from to the one holding the end of the list are write locked, the elements from the start of the
+   * FixedDeque holding from on are copied out and filtered, and the ones kept are loaded back packed into the
+   * FixedDeques. Nothing is changed if filter throws.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean removeMatching(int from, int to, Predicate<? super E> filter) {
+    for (;;) {
+      Blocks<E> b = blocks;
+      int first = b.stripe(from);
+      long[] stamps = lockRange(b, first);
+      if (stamps == null)
+        continue;
+      try {
+        int end = Math.min(to, size);
+        if (from >= end)
+          return false;
+        int listIndex = b.listIndex(from);
+        int lastListIndex = b.listIndex(size - 1);
+        int base = listIndex * b.deqCapacity;
+        Object[] a = new Object[size - base];
+        for (int i = listIndex, pos = 0; i <= lastListIndex; i++) {
+          FixedDeque<E> deque = b.deques[i];
+          deque.copyTo(0, a, pos, deque.size);
+          pos += deque.size;
+        }
+        int kept = from - base;
+        for (int i = kept; i < a.length; i++) {
+          if (i >= end - base || !filter.test((E) a[i]))
+            a[kept++] = a[i];
+        }
+        if (kept == a.length)
+          return false;
+        for (int i = listIndex; i <= lastListIndex; i++) {
+          int pos = (i - listIndex) * b.deqCapacity;
+          b.deques[i].load(a, pos, Math.max(0, Math.min(b.deqCapacity, kept - pos)));
+        }
+        modCount++;
+        size = base + kept;
+        return true;
+      } finally {
+        unlockRange(b, first, stamps);
+      }
+    }
+  }
+
+  // the index of the first occurrence of o, called with the stripes up to the one holding index size locked
+  private int indexOfLocked(Blocks<E> b, Object o) {
+    for (int i = 0, base = 0; base < size; i++, base += b.deqCapacity) {
+      FixedDeque<E> deque = b.deques[i];
+      for (int j = 0; j < deque.size; j++) {
+        if (Objects.equals(o, deque.get(j)))
+          return base + j;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Moves the elements of b into FixedDeques of a larger capacity, unless another thread already grew it or removed
+   * elements from it first
+   */
+  private void grow(Blocks<E> b) {
+    long[] stamps = lockAll(b);
+    if (stamps == null)
+      return;
+    try {
+      if (size < b.capacity)
+        return;
+      Blocks<E> grown = new Blocks<>((int) Math.max(b.capacity + 1L, b.capacity * 3L / 2));
+      Object[] a = new Object[size];
+      int pos = 0;
+      for (FixedDeque<E> deque : b.deques) {
+        deque.copyTo(0, a, pos, deque.size);
+        pos += deque.size;
+      }
+      for (int i = 0; i * grown.deqCapacity < a.length; i++) {
+        grown.deques[i].load(a, i * grown.deqCapacity, Math.min(grown.deqCapacity, a.length - i * grown.deqCapacity));
+      }
+      blocks = grown;
+    } finally {
+      unlockRange(b, 0, stamps);
+    }
+  }
+
+  // see IgushArray.shiftUp, called with the stripes from the one holding listIndex to the one holding index size locked
+  private static <E> void shiftUp(Blocks<E> b, int listIndex, E frontElement) {
+    while (listIndex < b.deques.length) {
+      FixedDeque<E> deque = b.deques[listIndex];
+      if (deque.isFull()) {
+        frontElement = deque.shiftUp(frontElement);
+      } else {
+        deque.fixedAdd(0, frontElement);
+        break;
+      }
+      listIndex += 1;
+    }
+  }
+
+  // see IgushArray.shiftDown, lastListIndex is the index of the last FixedDeque holding elements
+  private static <E> void shiftDown(Blocks<E> b, int listIndex, int lastListIndex) {
+    if (lastListIndex < listIndex)
+      return;
+    E endElement = b.deques[lastListIndex].remove(0);
+    for (int i = lastListIndex - 1; i >= listIndex; i--) {
+      endElement = b.deques[i].shiftDown(endElement);
+    }
+    b.deques[listIndex - 1].add(endElement);
+  }
+
+  private void rangeCheck(int index) {
+    if (index >= size || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private void rangeCheckForAdd(int index) {
+    if (index > size || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private String outOfBoundsMsg(int index) {
+    return "Index: " + index + ", Size: " + size;
+  }
+}
@@ -0,0 +1,229 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.util.Arrays;
+
+/**
+ * A Fixed Deque of primitive doubles implemented with a ring/circular buffer built directly on a contiguous double array.
+ * This is the primitive counterpart of FixedDeque, to be only used with DoubleIgushArray
+ *
+ * @author Stone Tao
+ */
+public class DoubleFixedDeque {
+  double[] elementData; // the ring buffer, its length is the capacity of this fixed deque
+  int head; // physical index of the first element in elementData
+  int size; // number of elements stored in this fixed deque
+
+  public DoubleFixedDeque(int capacity) {
+    if (capacity < 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + capacity);
+    elementData = new double[capacity];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean isFull() {
+    return size == elementData.length;
+  }
+
+  /**
+   * Returns the maximum number of elements this fixed deque can hold
+   *
+   * @return the capacity of this fixed deque
+   */
+  public int capacity() {
+    return elementData.length;
+  }
+
+  public double getDouble(int index) {
+    rangeCheck(index);
+    return elementData[physicalIndex(index)];
+  }
+
+  public double setDouble(int index, double element) {
+    rangeCheck(index);
+    int i = physicalIndex(index);
+    double temp = elementData[i];
+    elementData[i] = element;
+    return temp;
+  }
+
+  /**
+   * Adds the element to the end of this fixed deque
+   *
+   * @return true if added and false if not added because capacity is reached
+   */
+  public boolean addDouble(double element) {
+    return fixedAdd(size, element);
+  }
+
+  /**
+   * Inserts the element at the specified position, moving the elements on the side nearer to either end of the deque
+   *
+   * @param index   position in this fixed deque to add the element
+   * @param element the element to add
+   * @return true if added and false if not added because capacity is reached
+   */
+  public boolean fixedAdd(int index, double element) {
+    if (size < elementData.length) {
+      rangeCheckForAdd(index);
+      if (index < size - index) {
+        // nearer to the front, move elements 0..index-1 one slot towards the front
+        head = head == 0 ? elementData.length - 1 : head - 1;
+        ringCopy(1, 0, index);
+      } else {
+        // nearer to the end, move elements index..size-1 one slot towards the end
+        ringCopy(index, index + 1, size - index);
+      }
+      elementData[physicalIndex(index)] = element;
+      size++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Removes the element at the specified position, moving the elements on the side nearer to either end of the deque
+   * to close the gap
+   *
+   * @param index the index of the element to remove
+   * @return the removed element
+   */
+  public double removeAt(int index) {
+    rangeCheck(index);
+
+    double removedElement = elementData[physicalIndex(index)];
+    if (index < size - 1 - index) {
+      ringCopy(0, 1, index);
+      head = head + 1 == elementData.length ? 0 : head + 1;
+    } else {
+      ringCopy(index + 1, index, size - 1 - index);
+    }
+    size--;
+    return removedElement;
+  }
+
+  /**
+   * Returns the last element and moves a element to the front of the fixed deque. To be used only when deque is full
+   *
+   * @param element the element to shift to the front of the deque
+   * @return the last element which is removed.
+   */
+  public double shiftUp(double element) {
+    head = head == 0 ? elementData.length - 1 : head - 1;
+    double oldElement = elementData[head];
+    elementData[head] = element;
+    return oldElement;
+  }
+
+  /**
+   * Returns the first element and moves a element to the end of the fixed deque. To be used only when deque is full
+   *
+   * @param element the element to shift to the end of the deque
+   * @return the first element which is removed.
+   */
+  public double shiftDown(double element) {
+    double oldElement = elementData[head];
+    elementData[head] = element;
+    head = head + 1 == elementData.length ? 0 : head + 1;
+    return oldElement;
+  }
+
+  public void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  private void rangeCheck(int index) {
+    if (index >= size || index < 0)
+      throw new IndexOutOfBoundsException("Index: " + index + " is out of bounds of fixed deque with size " + size);
+  }
+
+  private void rangeCheckForAdd(int index) {
+    if (index > size || index < 0)
+      throw new IndexOutOfBoundsException("Index: " + index + " is out of bounds of fixed deque with size " + size);
+  }
+
+  /**
+   * Maps an index relative to the front of the deque to its index in elementData. Valid for 0 <= index < capacity
+   */
+  int physicalIndex(int index) {
+    int i = head + index;
+    return i >= elementData.length ? i - elementData.length : i;
+  }
+
+  /**
+   * Copies len elements starting at logical index src to logical index dst, both relative to the current head.
+   * Overlapping ranges are handled like System.arraycopy. Both ranges must lie in [0, capacity]
+   */
+  private void ringCopy(int src, int dst, int len) {
+    double[] es = elementData;
+    if (dst < src) {
+      while (len > 0) {
+        int s = physicalIndex(src);
+        int d = physicalIndex(dst);
+        int n = Math.min(len, es.length - Math.max(s, d));
+        System.arraycopy(es, s, es, d, n);
+        src += n;
+        dst += n;
+        len -= n;
+      }
+    } else if (dst > src) {
+      while (len > 0) {
+        int sEnd = physicalIndex(src + len - 1) + 1;
+        int dEnd = physicalIndex(dst + len - 1) + 1;
+        int n = Math.min(len, Math.min(sEnd, dEnd));
+        System.arraycopy(es, sEnd - n, es, dEnd - n, n);
+        len -= n;
+      }
+    }
+  }
+
+  /**
+   * Copies len elements starting at index from of this fixed deque into dst, in order, with at most two array copies
+   */
+  void copyTo(int from, double[] dst, int dstPos, int len) {
+    if (len == 0)
+      return;
+    int i = physicalIndex(from);
+    int n = Math.min(len, elementData.length - i);
+    System.arraycopy(elementData, i, dst, dstPos, n);
+    System.arraycopy(elementData, 0, dst, dstPos + n, len - n);
+  }
+
+  @Override
+  public String toString() {
+    double[] a = new double[size];
+    copyTo(0, a, 0, size);
+    return Arrays.toString(a);
+  }
+}
@@ -0,0 +1,452 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * An IgushArray of primitive doubles, with O(1) access and O(N^1/2) insertion and removal without boxing.
+ *
+ * It is stored like IgushArray as an array of DoubleFixedDeques, and every DoubleFixedDeque before the one containing
+ * index size is full. The capacity of each DoubleFixedDeque is always the power of two nearest to the square root of
+ * the capacity, so an index is split with a shift and a mask. Use {@link #asList()} to pass it to code expecting a
+ * {@code List<Double>}.
+ *
+ * @author Stone Tao
+ */
+public class DoubleIgushArray implements RandomAccess, Cloneable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private transient DoubleFixedDeque[] data; // data is stored as an array of fixed deques
+  private int capacity; // total capacity of the DoubleIgushArray, a multiple of deqCapacity
+  private int size; // the current size of DoubleIgushArray, not the same as capacity
+  private transient int deqCapacity; // capacity of each DoubleFixedDeque, a power of two
+  private transient int deqShift; // log2 of deqCapacity
+  private transient int deqMask; // deqCapacity - 1
+
+  /**
+   * Constructs an empty DoubleIgushArray with initial capacity of 10
+   */
+  public DoubleIgushArray() {
+    this(10);
+  }
+
+  /**
+   * Constructs an empty DoubleIgushArray with the specified initial capacity. The capacity is rounded up to a multiple
+   * of the DoubleFixedDeque capacity
+   *
+   * @param initialCapacity
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative
+   */
+  public DoubleIgushArray(int initialCapacity) {
+    if (initialCapacity <= 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    layout(initialCapacity);
+  }
+
+  /**
+   * Constructs a DoubleIgushArray containing the specified values in order. The capacity is by default set equal to
+   * the number of values
+   *
+   * @param values the values to be placed into this list
+   */
+  public DoubleIgushArray(double[] values) {
+    this(Math.max(1, values.length));
+    for (int i = 0; i < values.length; i += deqCapacity) {
+      DoubleFixedDeque deque = data[i >>> deqShift];
+      deque.size = Math.min(deqCapacity, values.length - i);
+      System.arraycopy(values, i, deque.elementData, 0, deque.size);
+    }
+    size = values.length;
+  }
+
+  /**
+   * Allocates new DoubleFixedDeques of the optimal capacity for minCapacity and copies all elements into them with
+   * array copies, a ring at a time
+   */
+  private void layout(int minCapacity) {
+    int optimal = Math.max(1, (int) Math.pow(minCapacity, 0.5));
+    int lower = Integer.highestOneBit(optimal);
+    int newDeqCapacity = optimal - lower <= (lower << 1) - optimal ? lower : lower << 1;
+    int newDeqShift = Integer.numberOfTrailingZeros(newDeqCapacity);
+    int listCapacity = (int) (((long) minCapacity + newDeqCapacity - 1) / newDeqCapacity);
+
+    DoubleFixedDeque[] newData = new DoubleFixedDeque[listCapacity];
+    for (int i = 0; i < listCapacity; i++) {
+      newData[i] = new DoubleFixedDeque(newDeqCapacity);
+    }
+    int index = 0;
+    for (int i = 0; data != null && index < size; i++) {
+      DoubleFixedDeque deque = data[i];
+      int copied = 0;
+      while (copied < deque.size) {
+        DoubleFixedDeque target = newData[index >>> newDeqShift];
+        int n = Math.min(deque.size - copied, newDeqCapacity - target.size);
+        deque.copyTo(copied, target.elementData, target.size, n);
+        target.size += n;
+        copied += n;
+        index += n;
+      }
+    }
+
+    data = newData;
+    capacity = listCapacity * newDeqCapacity;
+    deqCapacity = newDeqCapacity;
+    deqShift = newDeqShift;
+    deqMask = newDeqCapacity - 1;
+  }
+
+  /**
+   * Returns the current allocated capacity of the DoubleIgushArray
+   *
+   * @return
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Increases the capacity of this DoubleIgushArray instance, if necessary, to ensure that it can hold at least the
+   * number of elements specified by the minimum capacity argument. The DoubleFixedDeques are resized to the optimal
+   * capacity for the new capacity
+   *
+   * @param minCapacity the size to expand to
+   */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > capacity) {
+      layout(minCapacity);
+    }
+  }
+
+  /**
+   * Trims the capacity of this DoubleIgushArray instance to be the list's current size, rounded up to a multiple of
+   * the DoubleFixedDeque capacity
+   */
+  public void trimToSize() {
+    if (capacity > size) {
+      layout(Math.max(1, size));
+    }
+  }
+
+  // grows the capacity by a factor of 1.5, and by at least one
+  private void grow() {
+    if (capacity == Integer.MAX_VALUE)
+      throw new OutOfMemoryError("Required array size too large");
+    layout((int) Math.min(Integer.MAX_VALUE, Math.max(capacity + 1L, capacity * 3L / 2)));
+  }
+
+  /**
+   * Returns the number of elements in this DoubleIgushArray
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private void rangeCheck(int index) {
+    if (index >= size || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private void rangeCheckForAdd(int index) {
+    if (index > size || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private String outOfBoundsMsg(int index) {
+    return "Index: " + index + ", Size: " + size + ", Capacity: " + capacity;
+  }
+
+  /**
+   * Gets the element stored in the specified index of this DoubleIgushArray
+   *
+   * @param index
+   * @return
+   */
+  public double getDouble(int index) {
+    rangeCheck(index);
+    DoubleFixedDeque deque = data[index >>> deqShift];
+    return deque.elementData[(deque.head + index) & deqMask];
+  }
+
+  /**
+   * Replaces the element at the specified position in this DoubleIgushArray with specified element
+   *
+   * @param index   index of the element to replace
+   * @param element element to be stored at the specified position
+   * @return the element previously at the specified position
+   */
+  public double setDouble(int index, double element) {
+    rangeCheck(index);
+    DoubleFixedDeque deque = data[index >>> deqShift];
+    int i = (deque.head + index) & deqMask;
+    double oldElement = deque.elementData[i];
+    deque.elementData[i] = element;
+    return oldElement;
+  }
+
+  /**
+   * Adds an element to the end of the DoubleIgushArray. The capacity grows by a factor of 1.5 if it is reached
+   *
+   * @param element The element to add
+   */
+  public void addDouble(double element) {
+    if (size == capacity) {
+      grow();
+    }
+    data[size >>> deqShift].addDouble(element);
+    size++;
+  }
+
+  /**
+   * Adds (Inserts) element to the specified position into the DoubleIgushArray. The capacity grows by a factor of 1.5
+   * if it is reached
+   *
+   * @param index   position in the DoubleIgushArray to add the element
+   * @param element the element to add to the specified position
+   */
+  public void addDouble(int index, double element) {
+    rangeCheckForAdd(index);
+    if (size == capacity) {
+      grow();
+    }
+    int listIndex = index >>> deqShift;
+    int deqIndex = index & deqMask;
+    DoubleFixedDeque deque = data[listIndex];
+    if (!deque.fixedAdd(deqIndex, element)) {
+      // the deque is full, remove its last element to make space and shift it up into the next deques
+      double removedElement = deque.removeAt(deqMask);
+      deque.fixedAdd(deqIndex, element);
+      shiftUp(listIndex + 1, removedElement);
+    }
+    size++;
+  }
+
+  /**
+   * Removes the element stored in the specified position in the DoubleIgushArray
+   *
+   * @param index of the element to remove
+   * @return the element that was removed
+   */
+  public double removeAt(int index) {
+    rangeCheck(index);
+    int listIndex = index >>> deqShift;
+    double removedElement = data[listIndex].removeAt(index & deqMask);
+    shiftDown(listIndex + 1);
+    size--;
+    return removedElement;
+  }
+
+  /**
+   * Removes all of the elements from this DoubleIgushArray
+   */
+  public void clear() {
+    for (int i = 0, n = (size + deqMask) >>> deqShift; i < n; i++) {
+      data[i].clear();
+    }
+    size = 0;
+  }
+
+  /**
+   * Returns the index of the first occurrence of the specified element, or -1 if it is not present
+   */
+  public int indexOf(double element) {
+    int index = 0;
+    for (int i = 0; index < size; i++) {
+      DoubleFixedDeque deque = data[i];
+      for (int j = 0; j < deque.size; j++, index++) {
+        if (Double.doubleToLongBits(deque.elementData[deque.physicalIndex(j)]) == Double.doubleToLongBits(element)) {
+          return index;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the last occurrence of the specified element, or -1 if it is not present
+   */
+  public int lastIndexOf(double element) {
+    for (int index = size - 1; index >= 0; index--) {
+      DoubleFixedDeque deque = data[index >>> deqShift];
+      if (Double.doubleToLongBits(deque.elementData[(deque.head + index) & deqMask]) == Double.doubleToLongBits(element)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  public boolean contains(double element) {
+    return indexOf(element) >= 0;
+  }
+
+  /**
+   * Returns an array containing all of the elements in this DoubleIgushArray in order
+   */
+  public double[] toArray() {
+    double[] a = new double[size];
+    for (int index = 0; index < size; index += deqCapacity) {
+      DoubleFixedDeque deque = data[index >>> deqShift];
+      deque.copyTo(0, a, index, deque.size);
+    }
+    return a;
+  }
+
+  /**
+   * Returns a {@code List<Double>} view of this DoubleIgushArray. The view reads and writes through to this
+   * DoubleIgushArray, boxing elements as they are accessed
+   */
+  public List<Double> asList() {
+    return new ListView();
+  }
+
+  // Only used when we add/insert an element
+  private void shiftUp(int listIndex, double frontElement) {
+    while (true) {
+      DoubleFixedDeque deque = data[listIndex];
+      // the deques are full up to the final non full deque, which the shifting stops at
+      if (deque.isFull()) {
+        frontElement = deque.shiftUp(frontElement);
+      } else {
+        deque.fixedAdd(0, frontElement);
+        return;
+      }
+      listIndex++;
+    }
+  }
+
+  // Only used when we remove an element, moves the first element of every deque after listIndex to the deque before
+  private void shiftDown(int listIndex) {
+    int currListIndex = (size - 1) >>> deqShift;
+    if (currListIndex < listIndex)
+      return;
+    double endElement = data[currListIndex].removeAt(0);
+    for (currListIndex--; currListIndex >= listIndex; currListIndex--) {
+      endElement = data[currListIndex].shiftDown(endElement);
+    }
+    data[currListIndex].addDouble(endElement);
+  }
+
+  /**
+   * Returns a copy of this DoubleIgushArray instance
+   *
+   * @return a clone of this DoubleIgushArray instance
+   */
+  @Override
+  public DoubleIgushArray clone() {
+    try {
+      DoubleIgushArray v = (DoubleIgushArray) super.clone();
+      v.data = new DoubleFixedDeque[data.length];
+      for (int i = 0; i < data.length; i++) {
+        DoubleFixedDeque deque = new DoubleFixedDeque(0);
+        deque.elementData = data[i].elementData.clone();
+        deque.head = data[i].head;
+        deque.size = data[i].size;
+        v.data[i] = deque;
+      }
+      return v;
+    } catch (CloneNotSupportedException e) {
+      // shouldn't happen
+      throw new InternalError(e);
+    }
+  }
+
+  /**
+   * Saves the state of this DoubleIgushArray to a stream, writing the values in order instead of the DoubleFixedDeques
+   *
+   * @serialData the capacity and size, followed by all of the values in proper sequence
+   */
+  private void writeObject(ObjectOutputStream s) throws IOException {
+    s.defaultWriteObject();
+    for (int i = 0; i < size; i++) {
+      s.writeDouble(getDouble(i));
+    }
+  }
+
+  /**
+   * Reconstitutes an DoubleIgushArray from a stream, laying the values out in new DoubleFixedDeques for the saved capacity
+   */
+  private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+    s.defaultReadObject();
+    if (size < 0 || capacity <= 0 || size > capacity)
+      throw new InvalidObjectException("Invalid size: " + size + ", capacity: " + capacity);
+    layout(capacity);
+    for (int i = 0; i < size; i++) {
+      DoubleFixedDeque deque = data[i >>> deqShift];
+      deque.elementData[deque.size++] = s.readDouble();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private class ListView extends AbstractList<Double> implements RandomAccess {
+    @Override
+    public Double get(int index) {
+      return getDouble(index);
+    }
+
+    @Override
+    public Double set(int index, Double element) {
+      return setDouble(index, element);
+    }
+
+    @Override
+    public void add(int index, Double element) {
+      addDouble(index, element);
+      modCount++;
+    }
+
+    @Override
+    public Double remove(int index) {
+      Double removedElement = removeAt(index);
+      modCount++;
+      return removedElement;
+    }
+
+    @Override
+    public void clear() {
+      DoubleIgushArray.this.clear();
+      modCount++;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
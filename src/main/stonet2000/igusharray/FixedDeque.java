@@ -24,155 +24,401 @@
 
 package stonet2000.igusharray;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
 
 /**
- * A Fixed Deque implemented with a ring/circular buffer built with a contiguous array.
- * This is not a full implementation of a proper ring buffer, to be only used with IgushArray
+ * A Fixed Deque implemented with a ring/circular buffer built directly on a contiguous Object array.
+ * This is not a full implementation of a proper ring buffer, to be only used with IgushArray and TieredIgushArray
+ *
+ * Elements are stored at the physical indices head, head + 1, ..., head + size - 1 of elementData, wrapping around
+ * the end of the array. Inserting or removing moves the elements on the side nearer to the given index with
+ * System.arraycopy, and shiftUp/shiftDown only rotate head, so they are O(1).
  *
  * @param <E> the type of data stored in this fixed deque
  * @author Stone Tao
  */
-public class FixedDeque<E> extends ArrayList<E> {
-  private int begin;
-  private int end;
-  private int capacity;
+public class FixedDeque<E> extends AbstractList<E> implements RandomAccess, Block<E> {
+  Object[] elementData; // the ring buffer, its length is the capacity of this fixed deque
+  int head; // physical index of the first element in elementData
+  int size; // number of elements stored in this fixed deque
+  boolean shared; // set once an IgushArray snapshot or clone refers to this fixed deque, which is then never changed
 
   public FixedDeque(int capacity) {
-    super(capacity);
-    begin = 0;
-    end = -1;
-    this.capacity = capacity;
+    if (capacity < 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + capacity);
+    elementData = new Object[capacity];
+    head = 0;
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the maximum number of elements this fixed deque can hold
+   *
+   * @return the capacity of this fixed deque
+   */
+  public int capacity() {
+    return elementData.length;
   }
 
   @Override
-  //FIXME reduce function overhead here
   public boolean add(E element) {
-    return fixedAdd(size(), element);
+    return fixedAdd(size, element);
   }
 
+  /**
+   * Inserts the element at the specified position
+   *
+   * @throws IllegalStateException if the fixed deque is full
+   */
   @Override
   public void add(int index, E element) {
-    fixedAdd(index, element);
+    if (!fixedAdd(index, element)) {
+      throw new IllegalStateException("Fixed deque is full, capacity: " + elementData.length);
+    }
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public E get(int index) {
     rangeCheck(index);
-    return super.get((begin + index) % size());
+    return (E) elementData[physicalIndex(index)];
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public E set(int index, E element) {
     rangeCheck(index);
-    E temp = get(index);
-    super.set((begin + index) % size(), element);
+    int i = physicalIndex(index);
+    E temp = (E) elementData[i];
+    elementData[i] = element;
     return temp;
   }
 
+  /**
+   * Returns the element at the specified position without a range check, wrapping around the ring with a mask.
+   * Only valid when the capacity is a power of two and index is less than size
+   */
+  @SuppressWarnings("unchecked")
+  E getMasked(int index) {
+    return (E) elementData[(head + index) & (elementData.length - 1)];
+  }
+
+  /**
+   * Replaces the element at the specified position without a range check, wrapping around the ring with a mask.
+   * Only valid when the capacity is a power of two and index is less than size
+   */
+  @SuppressWarnings("unchecked")
+  E setMasked(int index, E element) {
+    int i = (head + index) & (elementData.length - 1);
+    E temp = (E) elementData[i];
+    elementData[i] = element;
+    return temp;
+  }
 
   /**
-   * This is ArrayList.add but returning true if added and false if not added because capacity reached
-   * Will always increase size of ArrayList by 1. The only method that should check if is capacity reached
+   * Inserts the element at the specified position, returning true if added and false if not added because capacity
+   * is reached. The elements on the side of index nearer to either end of the deque are moved by one slot.
+   * The only method that should check if is capacity reached
    *
-   * @param index
-   * @param element
-   * @return
+   * @param index   position in this fixed deque to add the element
+   * @param element the element to add
+   * @return true if the element was added
    */
   public boolean fixedAdd(int index, E element) {
-    if (size() < capacity) {
+    if (size < elementData.length) {
       rangeCheckForAdd(index);
-      int addIndex;
-      if (size() == 0)
-        addIndex = (begin + index);
-      else
-        addIndex = (begin + index) % (size() + 1);
-
-
-      super.add(addIndex, element);
-
-      //FIXME reduce code, too much constant factors
-      if (index == size() - 1) {
-        // adding to end
-        end = (end + 1) % size(); // always moves up
-        if (addIndex <= begin) {
-          begin = (begin + 1) % size();
-        }
+      if (index < size - index) {
+        // nearer to the front, move elements 0..index-1 one slot towards the front
+        head = head == 0 ? elementData.length - 1 : head - 1;
+        ringCopy(1, 0, index);
       } else {
-        if (addIndex < begin) {
-          begin = (begin + 1) % size();
-        }
-        if (addIndex <= end) {
-          end = (end + 1) % size();
-        }
+        // nearer to the end, move elements index..size-1 one slot towards the end
+        ringCopy(index, index + 1, size - index);
       }
+      elementData[physicalIndex(index)] = element;
+      size++;
+      modCount++;
       return true;
     }
     return false;
   }
 
   public boolean isFull() {
-    return size() == capacity;
+    return size == elementData.length;
   }
 
   private boolean rangeCheck(int index) {
-    if (index < size() && index >= 0) {
+    if (index < size && index >= 0) {
       return true;
     }
-    throw new IndexOutOfBoundsException("Index: " + index + " is out of bounds of fixed deque with size " + size());
+    throw new IndexOutOfBoundsException("Index: " + index + " is out of bounds of fixed deque with size " + size);
   }
 
   private boolean rangeCheckForAdd(int index) {
-    if (index <= size() && index >= 0) {
+    if (index <= size && index >= 0) {
       return true;
     }
-    throw new IndexOutOfBoundsException("Index: " + index + " is out of bounds of fixed deque with size " + size());
+    throw new IndexOutOfBoundsException("Index: " + index + " is out of bounds of fixed deque with size " + size);
   }
 
-  @Override
-  //FIXME Exists better implementation instead of resetting the start and end
-  // this is O(n) time and O(n) space at the moment
-  public void ensureCapacity(int minCapacity) {
-    super.ensureCapacity(minCapacity);
-    // we need to reset order of elements and the values of begin and end due to new space.
-    E[] tempArr = (E[]) new Object[size()];
+  /**
+   * Maps an index relative to the front of the deque to its index in elementData. Valid for 0 <= index < capacity
+   */
+  int physicalIndex(int index) {
+    int i = head + index;
+    return i >= elementData.length ? i - elementData.length : i;
+  }
 
-    for (int i = 0; i < size(); i++) {
-      tempArr[i] = get(i);
+  /**
+   * Copies len elements starting at logical index src to logical index dst, both relative to the current head.
+   * Overlapping ranges are handled like System.arraycopy, and at most three array copies are made as either range
+   * may wrap around the end of elementData. Both ranges must lie in [0, capacity]
+   */
+  private void ringCopy(int src, int dst, int len) {
+    Object[] es = elementData;
+    if (dst < src) {
+      // copy from the front so that a source is read before it is overwritten
+      while (len > 0) {
+        int s = physicalIndex(src);
+        int d = physicalIndex(dst);
+        int n = Math.min(len, es.length - Math.max(s, d));
+        System.arraycopy(es, s, es, d, n);
+        src += n;
+        dst += n;
+        len -= n;
+      }
+    } else if (dst > src) {
+      // copy from the back, sEnd and dEnd are exclusive physical ends of the remaining ranges
+      while (len > 0) {
+        int sEnd = physicalIndex(src + len - 1) + 1;
+        int dEnd = physicalIndex(dst + len - 1) + 1;
+        int n = Math.min(len, Math.min(sEnd, dEnd));
+        System.arraycopy(es, sEnd - n, es, dEnd - n, n);
+        len -= n;
+      }
     }
+  }
+
+  /**
+   * Copies len elements starting at index from of this fixed deque into dst, in order, with at most two array copies
+   *
+   * @param from    index of the first element to copy
+   * @param dst     the destination array
+   * @param dstPos  starting position in the destination array
+   * @param len     the number of elements to copy
+   */
+  void copyTo(int from, Object[] dst, int dstPos, int len) {
+    if (len == 0)
+      return;
+    int i = physicalIndex(from);
+    int n = Math.min(len, elementData.length - i);
+    System.arraycopy(elementData, i, dst, dstPos, n);
+    System.arraycopy(elementData, 0, dst, dstPos + n, len - n);
+  }
 
-    for (int i = 0; i < size(); i++) {
-      super.set(i, tempArr[i]);
+  /**
+   * Returns a fixed deque of the same capacity holding the same elements, starting at the front of its elementData.
+   * The copy is not shared
+   */
+  FixedDeque<E> copy() {
+    FixedDeque<E> copy = new FixedDeque<>(elementData.length);
+    copyTo(0, copy.elementData, 0, size);
+    copy.size = size;
+    return copy;
+  }
+
+  /**
+   * Replaces the contents of this fixed deque with len elements of src, stored from the start of elementData so that
+   * head is 0. len must not be larger than the capacity
+   *
+   * @param src    the array holding the elements
+   * @param srcPos position of the first element in src
+   * @param len    the number of elements
+   */
+  void load(Object[] src, int srcPos, int len) {
+    System.arraycopy(src, srcPos, elementData, 0, len);
+    Arrays.fill(elementData, len, elementData.length, null);
+    head = 0;
+    size = len;
+    modCount++;
+  }
+
+  /**
+   * Appends len elements of src to the end of this fixed deque with at most two array copies. There must be room
+   * for them
+   *
+   * @param src    the array holding the elements
+   * @param srcPos position of the first element in src
+   * @param len    the number of elements to append
+   */
+  void append(Object[] src, int srcPos, int len) {
+    if (len == 0)
+      return;
+    int i = physicalIndex(size);
+    int n = Math.min(len, elementData.length - i);
+    System.arraycopy(src, srcPos, elementData, i, n);
+    System.arraycopy(src, srcPos + n, elementData, 0, len - n);
+    size += len;
+  }
+
+  /**
+   * Inserts len elements of src at the specified position. The elements that no longer fit, which are the last ones
+   * of the result, are moved into spill instead. Inserting at the front of a full deque only rotates head and
+   * copies len elements in and out; any other position rewrites the deque from the start of elementData
+   *
+   * @param index  the position to insert at
+   * @param src    the array holding the elements, not the same array as spill
+   * @param srcPos position of the first element in src
+   * @param len    the number of elements to insert
+   * @param spill  the array receiving the elements that no longer fit, from its start
+   * @return the number of elements moved into spill
+   */
+  int insertAll(int index, Object[] src, int srcPos, int len, Object[] spill) {
+    int capacity = elementData.length;
+    int total = size + len;
+    int spilled = Math.max(0, total - capacity);
+    if (index == 0 && len <= capacity) {
+      // spill the last elements, then move head back over the free slots and fill them
+      copyTo(size - spilled, spill, 0, spilled);
+      head = head - len < 0 ? head - len + capacity : head - len;
+      int n = Math.min(len, capacity - head);
+      System.arraycopy(src, srcPos, elementData, head, n);
+      System.arraycopy(src, srcPos + n, elementData, 0, len - n);
+      size = total - spilled;
+      modCount++;
+      return spilled;
     }
+    Object[] merged = new Object[total];
+    copyTo(0, merged, 0, index);
+    System.arraycopy(src, srcPos, merged, index, len);
+    copyTo(index, merged, index + len, size - index);
+    int kept = total - spilled;
+    System.arraycopy(merged, 0, elementData, 0, kept);
+    Arrays.fill(elementData, kept, capacity, null);
+    System.arraycopy(merged, kept, spill, 0, spilled);
+    head = 0;
+    size = kept;
+    modCount++;
+    return spilled;
+  }
 
-    capacity = minCapacity;
-    begin = 0;
-    end = begin + size() - 1;
+  /**
+   * Moves the first n elements of this fixed deque to the end of dst, which must have room for them
+   *
+   * @param dst the fixed deque to append the elements to
+   * @param n   the number of elements to move
+   */
+  void moveFrontTo(FixedDeque<E> dst, int n) {
+    int first = Math.min(n, elementData.length - head);
+    dst.append(elementData, head, first);
+    dst.append(elementData, 0, n - first);
+    removeFront(n);
+  }
+
+  /**
+   * Removes the first n elements of this fixed deque by moving head past them
+   *
+   * @param n the number of elements to remove
+   */
+  void removeFront(int n) {
+    int first = Math.min(n, elementData.length - head);
+    Arrays.fill(elementData, head, head + first, null);
+    Arrays.fill(elementData, 0, n - first, null);
+    head = physicalIndex(n == elementData.length ? 0 : n);
+    size -= n;
+    modCount++;
+  }
+
+  /**
+   * Adds n null elements to the front of this fixed deque by moving head back over them, the reverse of
+   * removeFront. The free slots are always null, so nothing is written. There must be room for them
+   *
+   * @param n the number of null elements to add
+   */
+  void padFront(int n) {
+    head = head - n < 0 ? head - n + elementData.length : head - n;
+    size += n;
+    modCount++;
   }
 
-  // O(n)
-  @Override
   /**
-   * Removes normally, updates begin and end appropriately
-   * If we try to remove index 0, we swap the start and ending values and remove the end
+   * Increases the capacity of this fixed deque to minCapacity if it is smaller. The elements are copied to the start
+   * of the new array so head is reset to 0
+   *
+   * @param minCapacity the desired minimum capacity
    */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > elementData.length) {
+      Object[] newData = new Object[minCapacity];
+      copyTo(0, newData, 0, size);
+      elementData = newData;
+      head = 0;
+    }
+  }
+
+  /**
+   * Removes the element at the specified position, moving the elements on the side nearer to either end of the deque
+   * to close the gap
+   *
+   * @param index the index of the element to remove
+   * @return the removed element
+   */
+  @Override
+  @SuppressWarnings("unchecked")
   public E remove(int index) {
     rangeCheck(index);
 
-    int removeIndex = (begin + index) % size();
-    E removedElement = get(index); // use index here as get does the offsetting for us
-    super.remove(removeIndex);
-    if (removeIndex < begin)
-      begin = size() == 0 ? begin - 1 : (begin - 1 + size()) % size();
-    if (removeIndex <= end)
-      end = size() == 0 ? end - 1 : (end - 1 + size()) % size();
-
-      //FIXME: Edge case when index == 0 -> removeIndex == begin and removeIndex == size() after removal, begin should = begin % size();
+    int removeIndex = physicalIndex(index);
+    E removedElement = (E) elementData[removeIndex];
+    if (index < size - 1 - index) {
+      // nearer to the front, move elements 0..index-1 one slot towards the end
+      ringCopy(0, 1, index);
+      elementData[head] = null;
+      head = head + 1 == elementData.length ? 0 : head + 1;
+    } else {
+      // nearer to the end, move elements index+1..size-1 one slot towards the front
+      ringCopy(index + 1, index, size - 1 - index);
+      elementData[physicalIndex(size - 1)] = null;
+    }
+    size--;
+    modCount++;
     return removedElement;
   }
 
+  /**
+   * Removes the elements from fromIndex, inclusive, to toIndex, exclusive, moving the elements on the side nearer to
+   * either end of the deque to close the gap
+   */
+  @Override
+  protected void removeRange(int fromIndex, int toIndex) {
+    int n = toIndex - fromIndex;
+    if (n <= 0)
+      return;
+    if (fromIndex < size - toIndex) {
+      // fewer elements in front, move them towards the end and drop the front
+      ringCopy(0, n, fromIndex);
+      removeFront(n);
+    } else {
+      ringCopy(toIndex, fromIndex, size - toIndex);
+      int start = physicalIndex(size - n);
+      int first = Math.min(n, elementData.length - start);
+      Arrays.fill(elementData, start, start + first, null);
+      Arrays.fill(elementData, 0, n - first, null);
+      size -= n;
+      modCount++;
+    }
+  }
+
   public E pop() {
-    return remove(size() - 1);
+    return remove(size - 1);
   }
 
   public E popFront() {
@@ -180,19 +426,18 @@ public class FixedDeque<E> extends ArrayList<E> {
   }
 
   public boolean pushFront(E element) {
-    if (size() < capacity) {
-      fixedAdd(0, element);
-      return true;
-    }
     // if the fixed deque is full, we should perform a O(1) move operation in the IgushArray.java
-    return false;
+    return fixedAdd(0, element);
   }
 
   @Override
   public void clear() {
-    super.clear();
-    begin = 0;
-    end = -1;
+    int n = Math.min(size, elementData.length - head);
+    Arrays.fill(elementData, head, head + n, null);
+    Arrays.fill(elementData, 0, size - n, null);
+    head = 0;
+    size = 0;
+    modCount++;
   }
 
   /**
@@ -201,11 +446,12 @@ public class FixedDeque<E> extends ArrayList<E> {
    * @param element the element to shift to the front of the deque
    * @return the last element which is removed.
    */
+  @SuppressWarnings("unchecked")
   public E shiftUp(E element) {
-
-    E oldElement = set(size() - 1, element);
-    end = (end - 1 + capacity) % capacity;
-    begin = (begin - 1 + capacity) % capacity;
+    // when full, the slot before head holds the last element
+    head = head == 0 ? elementData.length - 1 : head - 1;
+    E oldElement = (E) elementData[head];
+    elementData[head] = element;
     return oldElement;
   }
 
@@ -215,25 +461,39 @@ public class FixedDeque<E> extends ArrayList<E> {
    * @param element the element to shift to the end of the deque
    * @return the first element which is removed.
    */
+  @SuppressWarnings("unchecked")
   public E shiftDown(E element) {
-
-    E oldElement = set(0, element);
-    end = (end + 1) % capacity;
-    begin = (begin + 1) % capacity;
+    // when full, the slot of the first element becomes the slot after the last element
+    E oldElement = (E) elementData[head];
+    elementData[head] = element;
+    head = head + 1 == elementData.length ? 0 : head + 1;
     return oldElement;
   }
 
+  /**
+   * Performs the action for each element, walking the ring directly instead of through an iterator
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(Consumer<? super E> action) {
+    int n = Math.min(size, elementData.length - head);
+    for (int i = head; i < head + n; i++)
+      action.accept((E) elementData[i]);
+    for (int i = 0; i < size - n; i++)
+      action.accept((E) elementData[i]);
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
 
     sb.append('[');
     int i = 0;
-    for (; i < size() - 1; i++) {
+    for (; i < size - 1; i++) {
       sb.append(get(i));
       sb.append(',').append(' ');
     }
-    if (i < size()) {
+    if (i < size) {
       sb.append(get(i));
     }
     sb.append(']');
@@ -241,7 +501,7 @@ public class FixedDeque<E> extends ArrayList<E> {
   }
 
   public String origString() {
-    System.out.println("Begin: " + begin + ", End: " + end + ", Size: " + size());
-    return super.toString();
+    System.out.println("Head: " + head + ", Size: " + size + ", Capacity: " + elementData.length);
+    return Arrays.toString(elementData);
   }
 }
@@ -0,0 +1,473 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * An IgushArray that keeps all of its rings in one contiguous Object array instead of a list of FixedDeques.
+ *
+ * The array is partitioned into slots of deqCapacity elements, and slot i holds a ring buffer whose first element
+ * is at offset heads[i] inside the slot. As with IgushArray, every ring before the one containing index size is
+ * full, so the number of elements in each ring never has to be stored. deqCapacity is always a power of two, so
+ * accessing an element is a read of heads and a read of elementData, with only shifts and masks in between.
+ *
+ * It has the same O(1) access and O(N^1/2) insertion and removal as IgushArray and can be used in its place.
+ *
+ * @param <E> the type of elements in this list
+ * @author Stone Tao
+ */
+public class FlatIgushArray<E> extends AbstractList<E> implements List<E>, RandomAccess, Cloneable, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private Object[] elementData; // all the rings, ring i occupies elementData[i * deqCapacity, (i + 1) * deqCapacity)
+  private int[] heads; // offset of the first element of each ring inside its slot
+  private int size; // the current size of FlatIgushArray, not the same as capacity
+  private int deqCapacity; // capacity of each ring, a power of two
+  private int deqShift; // log2 of deqCapacity
+  private int deqMask; // deqCapacity - 1
+
+  /**
+   * Constructs an empty FlatIgushArray with initial capacity of 10
+   */
+  public FlatIgushArray() {
+    this(10);
+  }
+
+  /**
+   * Constructs an empty FlatIgushArray with the specified initial capacity. The capacity is rounded up to a multiple
+   * of the ring capacity
+   *
+   * @param initialCapacity
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative
+   */
+  public FlatIgushArray(int initialCapacity) {
+    if (initialCapacity <= 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    layout(initialCapacity);
+  }
+
+  /**
+   * Constructs a FlatIgushArray containing the elements of the specified
+   * collection, in the order they are returned by the collection's iterator
+   * The capacity is by default set equal to the collection size
+   *
+   * @param c the collection whose elements are to be placed into this list
+   * @throws NullPointerException if the specified collection is null
+   */
+  public FlatIgushArray(Collection<? extends E> c) {
+    this(Math.max(1, c.size()));
+    Object[] a = c.toArray();
+    System.arraycopy(a, 0, elementData, 0, a.length);
+    size = a.length;
+  }
+
+  /**
+   * Allocates a new, linear, layout that holds at least the given number of elements and moves all elements into it
+   * with array copies, a ring at a time. Every head is reset to 0, so the elements are stored in order.
+   */
+  private void layout(int minCapacity) {
+    int optimal = Math.max(1, (int) Math.pow(minCapacity, 0.5));
+    int lower = Integer.highestOneBit(optimal);
+    int newDeqCapacity = optimal - lower <= (lower << 1) - optimal ? lower : lower << 1;
+    int listCapacity = (int) (((long) minCapacity + newDeqCapacity - 1) / newDeqCapacity);
+    long length = (long) listCapacity * newDeqCapacity;
+    if (length > Integer.MAX_VALUE)
+      throw new OutOfMemoryError("Required array size too large");
+
+    Object[] newData = new Object[(int) length];
+    if (elementData != null) {
+      copyTo(0, newData, 0, size);
+    }
+    elementData = newData;
+    heads = new int[listCapacity];
+    deqCapacity = newDeqCapacity;
+    deqShift = Integer.numberOfTrailingZeros(newDeqCapacity);
+    deqMask = newDeqCapacity - 1;
+  }
+
+  /**
+   * Trims the capacity of this FlatIgushArray instance to be the list's current size, rounded up to a multiple of
+   * the ring capacity. The rings are resized to the optimal capacity for that size.
+   */
+  public void trimToSize() {
+    if (capacity() > size) {
+      layout(Math.max(1, size));
+      modCount++;
+    }
+  }
+
+  /**
+   * Returns the current allocated capacity of the FlatIgushArray
+   *
+   * @return
+   */
+  public int capacity() {
+    return elementData.length;
+  }
+
+  /**
+   * Increases the capacity of this FlatIgushArray instance, if necessary, to ensure that it can hold
+   * at least the number of elements specified by the minimum capacity argument. The rings are resized to the optimal
+   * capacity for the new capacity, which copies every element once with bulk array copies.
+   *
+   * @param minCapacity the size to expand to
+   */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > elementData.length) {
+      layout(minCapacity);
+      modCount++;
+    }
+  }
+
+  /**
+   * Grows the capacity by a factor of 1.5, and by at least one
+   */
+  private void grow() {
+    int capacity = elementData.length;
+    if (capacity == Integer.MAX_VALUE)
+      throw new OutOfMemoryError("Required array size too large");
+    layout((int) Math.min(Integer.MAX_VALUE, Math.max(capacity + 1L, capacity * 3L / 2)));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private void rangeCheck(int index) {
+    if (index >= size || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private void rangeCheckForAdd(int index) {
+    if (index > size || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private String outOfBoundsMsg(int index) {
+    return "Index: " + index + ", Size: " + size + ", Capacity: " + elementData.length;
+  }
+
+  /**
+   * Returns the index in elementData of the element at index. The ring of index starts at (index & ~deqMask), and
+   * masking head + index gives the same offset inside the ring as masking head + (index & deqMask)
+   */
+  private int elementIndex(int index) {
+    return (index & ~deqMask) | ((heads[index >>> deqShift] + index) & deqMask);
+  }
+
+  /**
+   * Gets the element stored in the specified index of this FlatIgushArray
+   *
+   * @param index
+   * @return
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    rangeCheck(index);
+    return (E) elementData[elementIndex(index)];
+  }
+
+  /**
+   * Replaces the element at the specified position in this FlatIgushArray with
+   * specified element
+   *
+   * @param index   index of the element to replace
+   * @param element element to be stored at the specified position
+   * @return the element previously at the specified position
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public E set(int index, E element) {
+    rangeCheck(index);
+    int i = elementIndex(index);
+    E oldElement = (E) elementData[i];
+    elementData[i] = element;
+    return oldElement;
+  }
+
+  /**
+   * Adds an element to the end of the FlatIgushArray. The capacity grows by a factor of 1.5 if it is reached
+   *
+   * @param e The element to add
+   * @return
+   */
+  @Override
+  public boolean add(E e) {
+    if (size == elementData.length) {
+      grow();
+    }
+    elementData[elementIndex(size)] = e;
+    size++;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Adds (Inserts) element to the specified position into the FlatIgushArray. If capacity is reached it grows by a
+   * factor of 1.5
+   *
+   * @param index   position in the FlatIgushArray to add the element
+   * @param element the element to add to the specified position
+   */
+  @Override
+  public void add(int index, E element) {
+    rangeCheckForAdd(index);
+    if (size == elementData.length) {
+      grow();
+    }
+    int ring = index >>> deqShift;
+    int lastRing = size >>> deqShift; // the ring that gains an element, it always has space
+    if (ring == lastRing) {
+      insertInRing(ring, index & deqMask, size & deqMask, element);
+    } else {
+      Object carry = insertInFullRing(ring, index & deqMask, element);
+      // the last element of each full ring moves to the front of the next one
+      for (int i = ring + 1; i < lastRing; i++) {
+        int head = (heads[i] - 1) & deqMask;
+        heads[i] = head;
+        int j = (i << deqShift) + head;
+        Object temp = elementData[j];
+        elementData[j] = carry;
+        carry = temp;
+      }
+      int head = (heads[lastRing] - 1) & deqMask;
+      heads[lastRing] = head;
+      elementData[(lastRing << deqShift) + head] = carry;
+    }
+    size++;
+    modCount++;
+  }
+
+  /**
+   * Removes the element stored in the specified position in the FlatIgushArray
+   *
+   * @param index of the element to remove
+   * @return the element that was removed
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public E remove(int index) {
+    rangeCheck(index);
+    E removedElement = (E) elementData[elementIndex(index)];
+    int ring = index >>> deqShift;
+    int lastRing = (size - 1) >>> deqShift; // the ring that loses an element
+    if (ring == lastRing) {
+      removeInRing(ring, index & deqMask, size - (ring << deqShift));
+    } else {
+      int hole = removeInFullRing(ring, index & deqMask);
+      // the first element of each following ring moves to the end of the ring before it
+      for (int i = ring + 1; i < lastRing; i++) {
+        int j = (i << deqShift) + heads[i];
+        elementData[hole] = elementData[j];
+        hole = j;
+        heads[i] = (heads[i] + 1) & deqMask;
+      }
+      int j = (lastRing << deqShift) + heads[lastRing];
+      elementData[hole] = elementData[j];
+      elementData[j] = null;
+      heads[lastRing] = (heads[lastRing] + 1) & deqMask;
+    }
+    size--;
+    modCount++;
+    return removedElement;
+  }
+
+  /**
+   * Removes all of the elements from this FlatIgushArray.
+   * The list will be empty after this call returns
+   */
+  @Override
+  public void clear() {
+    // the end of the ring holding the last element, in long as it may be past Integer.MAX_VALUE
+    long end = ((size + (long) deqMask) >>> deqShift) << deqShift;
+    Arrays.fill(elementData, 0, (int) Math.min(elementData.length, end), null);
+    Arrays.fill(heads, 0);
+    size = 0;
+    modCount++;
+  }
+
+  /**
+   * Inserts an element into a ring that is not full, moving the elements on the side nearer to either end of it
+   *
+   * @param ring   the ring to insert into
+   * @param offset position inside the ring
+   * @param count  number of elements in the ring
+   */
+  private void insertInRing(int ring, int offset, int count, Object element) {
+    int base = ring << deqShift;
+    int head = heads[ring];
+    if (offset < count - offset) {
+      head = (head - 1) & deqMask;
+      heads[ring] = head;
+      ringCopy(base, head, 1, 0, offset);
+    } else {
+      ringCopy(base, head, offset, offset + 1, count - offset);
+    }
+    elementData[base + ((head + offset) & deqMask)] = element;
+  }
+
+  /**
+   * Inserts an element into a full ring and removes its last element to make space for it
+   *
+   * @return the last element of the ring before the insertion
+   */
+  private Object insertInFullRing(int ring, int offset, Object element) {
+    int base = ring << deqShift;
+    int head = heads[ring];
+    Object last;
+    if (offset < deqMask - offset) {
+      // the slot before head holds the last element, it becomes the new front
+      head = (head - 1) & deqMask;
+      heads[ring] = head;
+      last = elementData[base + head];
+      ringCopy(base, head, 1, 0, offset);
+    } else {
+      last = elementData[base + ((head + deqMask) & deqMask)];
+      ringCopy(base, head, offset, offset + 1, deqMask - offset);
+    }
+    elementData[base + ((head + offset) & deqMask)] = element;
+    return last;
+  }
+
+  /**
+   * Removes an element from a ring holding count elements, moving the elements on the side nearer to either end
+   */
+  private void removeInRing(int ring, int offset, int count) {
+    int base = ring << deqShift;
+    int head = heads[ring];
+    if (offset < count - 1 - offset) {
+      ringCopy(base, head, 0, 1, offset);
+      elementData[base + head] = null;
+      heads[ring] = (head + 1) & deqMask;
+    } else {
+      ringCopy(base, head, offset + 1, offset, count - 1 - offset);
+      elementData[base + ((head + count - 1) & deqMask)] = null;
+    }
+  }
+
+  /**
+   * Removes an element from a full ring, leaving the last position of the ring free
+   *
+   * @return the index in elementData of the free last position of the ring
+   */
+  private int removeInFullRing(int ring, int offset) {
+    int base = ring << deqShift;
+    int head = heads[ring];
+    if (offset < deqMask - offset) {
+      ringCopy(base, head, 0, 1, offset);
+      heads[ring] = (head + 1) & deqMask;
+      return base + head;
+    }
+    ringCopy(base, head, offset + 1, offset, deqMask - offset);
+    return base + ((head + deqMask) & deqMask);
+  }
+
+  /**
+   * Copies len elements of a ring from offset src to offset dst, both relative to head. Overlapping ranges are
+   * handled like System.arraycopy, and at most three array copies are made as either range may wrap around the
+   * ring's slot.
+   */
+  private void ringCopy(int base, int head, int src, int dst, int len) {
+    Object[] es = elementData;
+    if (dst < src) {
+      // copy from the front so that a source is read before it is overwritten
+      while (len > 0) {
+        int s = (head + src) & deqMask;
+        int d = (head + dst) & deqMask;
+        int n = Math.min(len, deqCapacity - Math.max(s, d));
+        System.arraycopy(es, base + s, es, base + d, n);
+        src += n;
+        dst += n;
+        len -= n;
+      }
+    } else if (dst > src) {
+      // copy from the back, sEnd and dEnd are exclusive ends of the remaining ranges
+      while (len > 0) {
+        int sEnd = ((head + src + len - 1) & deqMask) + 1;
+        int dEnd = ((head + dst + len - 1) & deqMask) + 1;
+        int n = Math.min(len, Math.min(sEnd, dEnd));
+        System.arraycopy(es, base + sEnd - n, es, base + dEnd - n, n);
+        len -= n;
+      }
+    }
+  }
+
+  /**
+   * Copies len elements starting at index from into dst, with at most two array copies per ring
+   */
+  private void copyTo(int from, Object[] dst, int dstPos, int len) {
+    while (len > 0) {
+      int ring = from >>> deqShift;
+      int offset = from & deqMask;
+      int n = Math.min(len, deqCapacity - offset);
+      int base = ring << deqShift;
+      int i = (heads[ring] + offset) & deqMask;
+      int first = Math.min(n, deqCapacity - i);
+      System.arraycopy(elementData, base + i, dst, dstPos, first);
+      System.arraycopy(elementData, base, dst, dstPos + first, n - first);
+      from += n;
+      dstPos += n;
+      len -= n;
+    }
+  }
+
+  @Override
+  public Object[] toArray() {
+    Object[] a = new Object[size];
+    copyTo(0, a, 0, size);
+    return a;
+  }
+
+  /**
+   * Returns a copy of this FlatIgushArray instance. (The elements themselves are not copied.)
+   *
+   * @return a clone of this FlatIgushArray instance
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Object clone() {
+    try {
+      FlatIgushArray<E> v = (FlatIgushArray<E>) super.clone();
+      v.elementData = elementData.clone();
+      v.heads = heads.clone();
+      v.modCount = 0;
+      return v;
+    } catch (CloneNotSupportedException e) {
+      // shouldn't happen
+      throw new InternalError(e);
+    }
+  }
+}
@@ -24,17 +24,47 @@
 
 package stonet2000.igusharray;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAccess, Cloneable, Serializable {
+public class IgushArray<E> extends AbstractList<E> implements List<E>, Deque<E>, RandomAccess, Cloneable, Serializable {
 
-  public ArrayList<FixedDeque<E>> data; // data is stored as a list of lists (array of arrays).
+  private static final long serialVersionUID = 1L;
+
+  public transient ArrayList<FixedDeque<E>> data; // data is stored as a list of lists (array of arrays). While migrating, only the elements before migrated are in data, the rest are in oldData
   private int capacity; // total capacity of the IgushArray
   private int size; // the current size of IgushArray, not the same as capacity
-  private int deqCapacity; // capacity of each ArrayDeque in the list
-  private int listCapacity; // capacity of the list containing references to the ArrayDeques
-  private int lastDeqCapacity; // capacity of the final deq
+  private transient int deqCapacity; // capacity of each ArrayDeque in the list
+  private transient int listCapacity; // capacity of the list containing references to the ArrayDeques
+  private transient int lastDeqCapacity; // capacity of the final deq
+  private transient int front; // free slots before the first element in the first deque, so the element at index is at position index + front of the deques. At most deqCapacity, and only set when not migrating
+  private final boolean powerOfTwoBlocks; // whether deqCapacity is kept a power of two
+  private transient int deqShift; // log2 of deqCapacity when using power of two blocks
+  private transient int deqMask; // deqCapacity - 1 when using power of two blocks
+  private final boolean incrementalGrowth; // whether growing moves the elements to the new deques a few at a time
+  private transient ArrayList<FixedDeque<E>> oldData; // deques of the layout being grown out of, null when not migrating
+  private transient int oldDeqCapacity; // capacity of each deque in oldData
+  private transient int oldFirst; // index in oldData of the first deque that may still hold elements
+  private transient int migrated; // number of elements already in data while migrating, they come before those in oldData
+  private boolean autoShrink; // whether removing elements may trim the capacity
+  private final double baseBlockRatio; // block ratio given at construction, the best one for inserts and removes alone
+  private double blockRatio; // deqCapacity chosen for a capacity is this times the square root of the capacity
+  private boolean adaptiveBlocks; // whether blockRatio is retuned from the sampled operations
+  private long sampledReads; // elements read by iterating or scanning the list while adaptive
+  private long sampledShifts; // inserts and removes by index away from the ends while adaptive
+  private transient Metrics metrics; // counters of the operations done, null unless metrics are enabled
+  private transient boolean sharedDeqs; // whether a snapshot or clone may share some of the deques, which are then copied on write
+  private transient int dequeCopies; // number of shared deques replaced by a copy, so iterators know to find their deque again
+  private static final int SHRINK_RATIO = 4; // automatic shrinking happens below 1 / SHRINK_RATIO of the capacity
+  private static final int MIN_SHRINK_CAPACITY = 16; // automatic shrinking never goes below this capacity
+  private static final double MAX_ADAPTIVE_SCALE = 16; // adaptive blocks are at most this many times the base size
   /*
    * To ensure O(1) access time, each list in the data list is implemented with ArrayList, not ArrayDeque.
    */
@@ -54,11 +84,90 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
    *                                  is negative
    */
   public IgushArray(int initialCapacity) {
-    capacity = initialCapacity;
-    if (capacity <= 0)
-      throw new IllegalArgumentException("Illegal Capacity: " + capacity);
+    this(initialCapacity, false);
+  }
+
+  /**
+   * Constructs an empty IgushArray with the specified initial capacity. If powerOfTwoBlocks is true, the capacity of
+   * each FixedDeque is rounded to a power of two so that an index is split into a FixedDeque and a position in it
+   * with a shift and a mask instead of a division. The capacity is then rounded up to a multiple of the FixedDeque
+   * capacity.
+   *
+   * @param initialCapacity
+   * @param powerOfTwoBlocks whether to use power of two FixedDeque capacities
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative
+   */
+  public IgushArray(int initialCapacity, boolean powerOfTwoBlocks) {
+    this(initialCapacity, powerOfTwoBlocks, false);
+  }
+
+  /**
+   * Constructs an empty IgushArray with the specified initial capacity, see {@link #IgushArray(int, boolean)}.
+   *
+   * If incrementalGrowth is true, an add that fills the IgushArray does not copy every element into FixedDeques of
+   * the new capacity at once. The new, empty, deques are used straight away, and each following add and remove moves
+   * at most one new deque's worth of elements from the old deques into them, so an add is O(N^1/2) even when it
+   * grows the IgushArray. Until the elements are all moved, the ones not yet moved are found in the old deques.
+   * Calling any other method that changes the IgushArray finishes the move first.
+   *
+   * @param initialCapacity
+   * @param powerOfTwoBlocks  whether to use power of two FixedDeque capacities
+   * @param incrementalGrowth whether to move elements into the grown FixedDeques a few at a time
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative
+   */
+  public IgushArray(int initialCapacity, boolean powerOfTwoBlocks, boolean incrementalGrowth) {
+    this(initialCapacity, powerOfTwoBlocks, incrementalGrowth, 1);
+  }
+
+  /**
+   * Constructs an empty IgushArray with the specified initial capacity, whose FixedDeques hold blockRatio times the
+   * square root of the capacity instead of the square root itself. A larger ratio makes fewer, larger FixedDeques,
+   * which suits lists mostly read by iterating, and a smaller one makes the moves inside each FixedDeque shorter at
+   * the price of more FixedDeques for a shift to pass through.
+   *
+   * @param initialCapacity
+   * @param blockRatio the ratio of the FixedDeque capacity to the square root of the capacity
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative, or the ratio is not positive and finite
+   */
+  public IgushArray(int initialCapacity, double blockRatio) {
+    this(initialCapacity, false, false, blockRatio);
+  }
+
+  /**
+   * Constructs an empty IgushArray with the specified initial capacity, see {@link #IgushArray(int, boolean, boolean)}
+   * and {@link #IgushArray(int, double)}.
+   *
+   * @param initialCapacity
+   * @param powerOfTwoBlocks  whether to use power of two FixedDeque capacities
+   * @param incrementalGrowth whether to move elements into the grown FixedDeques a few at a time
+   * @param blockRatio        the ratio of the FixedDeque capacity to the square root of the capacity
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative, or the ratio is not positive and finite
+   */
+  public IgushArray(int initialCapacity, boolean powerOfTwoBlocks, boolean incrementalGrowth, double blockRatio) {
+    this.powerOfTwoBlocks = powerOfTwoBlocks;
+    this.incrementalGrowth = incrementalGrowth;
+    if (initialCapacity <= 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    if (!(blockRatio > 0) || Double.isInfinite(blockRatio))
+      throw new IllegalArgumentException("Illegal Block Ratio: " + blockRatio);
+    this.baseBlockRatio = blockRatio;
+    this.blockRatio = blockRatio;
+    allocate(initialCapacity);
+    size = 0;
+
+  }
 
-    deqCapacity = (int) Math.pow(capacity, 0.5);
+  /**
+   * Sets up empty FixedDeques for initialCapacity, which the constructors and readObject start from
+   */
+  private void allocate(int initialCapacity) {
+    deqCapacity = optimalDeqCapacity(initialCapacity);
+    capacity = roundCapacity(initialCapacity, deqCapacity);
+    setDeqShift();
     lastDeqCapacity = capacity % deqCapacity;
     listCapacity = (int) Math.ceil((double) capacity / deqCapacity);
     
@@ -71,8 +180,6 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
     } else {
       data.add(new FixedDeque<E>(deqCapacity));
     }
-    size = 0;
-
   }
 
   /**
@@ -112,13 +219,223 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
   }
 
   /**
-   * FIXME
    * Trims the capacity of this <tt>IgushArray</tt> instance to be the
    * list's current size.  An application can use this operation to minimize
    * the storage of an <tt>IgushArray</tt> instance.
+   *
+   * The FixedDeque capacity is recomputed for the current size, so the elements are packed into new deques if it
+   * changes. Otherwise the trailing deques are released and the final one is replaced by a smaller one if needed.
    */
   public void trimToSize() {
+    shrink(size);
+  }
+
+  /**
+   * Sets whether this IgushArray shrinks by itself. When on, removing elements so that fewer than a quarter of the
+   * capacity is used trims the capacity to twice the size, or 16 if larger. The gap between the two keeps the
+   * IgushArray from shrinking and growing back again with a few adds and removes, and the cost of trimming is
+   * covered by the removes it takes to reach a quarter again.
+   *
+   * @param autoShrink whether to shrink automatically
+   */
+  public void setAutoShrink(boolean autoShrink) {
+    this.autoShrink = autoShrink;
+    shrinkIfSparse();
+  }
+
+  /**
+   * Sets whether this IgushArray picks its FixedDeque capacity from the operations done on it. When on, it counts
+   * the elements read by iterators, spliterators, forEach and scans such as removeIf, and the inserts and removes by
+   * index. Inserts and removes at either end are not counted, as they are O(1), and neither are get and set, as they
+   * cost the same whatever the FixedDeque capacity. Whenever it grows or shrinks, and on {@link #retune()}, it then
+   * scales the block ratio given at construction by the one minimising the modelled cost, see
+   * {@link #retuneBlockRatio()}, so lists that are read much more than changed get larger FixedDeques. Turning it off goes back to the ratio given at construction at
+   * the next resize.
+   *
+   * @param adaptiveBlocks whether to adapt the FixedDeque capacity to the operations done
+   */
+  public void setAdaptiveBlocks(boolean adaptiveBlocks) {
+    this.adaptiveBlocks = adaptiveBlocks;
+    sampledReads = 0;
+    sampledShifts = 0;
+    if (!adaptiveBlocks)
+      blockRatio = baseBlockRatio;
+  }
+
+  /**
+   * Returns the ratio of the FixedDeque capacity to the square root of the capacity used at the last resize
+   *
+   * @return the current block ratio
+   */
+  public double blockRatio() {
+    return blockRatio;
+  }
+
+  /**
+   * Retunes the block ratio from the operations sampled so far, see {@link #setAdaptiveBlocks(boolean)}, and packs
+   * the elements into FixedDeques of the capacity it gives if that differs from the current one, which is O(N).
+   * Nothing changes if adaptive blocks are off
+   */
+  public void retune() {
+    completeGrowth();
+    retuneBlockRatio();
+    int newDeqCapacity = optimalDeqCapacity(capacity);
+    if (newDeqCapacity != deqCapacity) {
+      IgushArrayEvents.Resize event = beginResize();
+      modCount++;
+      repack(newDeqCapacity, roundCapacity(capacity, newDeqCapacity));
+      endResize(event, "retune", size);
+    }
+  }
+
+  /**
+   * Picks the block ratio with the lowest modelled cost for the sampled operations. With FixedDeques of capacity D,
+   * an insert or remove moves about D / 4 elements inside one and passes about N / 4D others, each taken to cost
+   * baseBlockRatio^2 element moves so that baseBlockRatio is best when there are only inserts and removes. Reading
+   * along the list passes into the next FixedDeque once every D elements at the same cost. With I inserts and
+   * removes and R reads, the cost I (D / 4 + r^2 N / 4D) + R r^2 / D, for r the base ratio, is lowest at
+   * D = r * sqrt(N) * sqrt(1 + 4R / IN). The samples are halved after each retune so that the ratio follows a
+   * change of workload
+   */
+  private void retuneBlockRatio() {
+    if (!adaptiveBlocks || sampledReads + sampledShifts == 0)
+      return;
+    double scale = MAX_ADAPTIVE_SCALE;
+    if (sampledShifts > 0)
+      scale = Math.min(scale, Math.sqrt(1 + 4.0 * sampledReads / ((double) sampledShifts * Math.max(1, size))));
+    blockRatio = baseBlockRatio * scale;
+    sampledReads >>= 1;
+    sampledShifts >>= 1;
+  }
+
+  /**
+   * Sets whether this IgushArray counts its inserts, removes, cascades through the FixedDeques, resizes and the
+   * elements resizing copies, see {@link #stats()}. The counters are LongAdders so that a monitoring thread can read
+   * them while the IgushArray is used, and when off each counting point is a single null check. Enabling metrics
+   * that are off starts the counts from 0, enabling them again keeps the counts
+   *
+   * @param enabled whether to count operations
+   */
+  public void setMetricsEnabled(boolean enabled) {
+    if (enabled != (metrics != null))
+      metrics = enabled ? new Metrics() : null;
+  }
+
+  /**
+   * Returns a snapshot of the layout of this IgushArray and of the operations counted since metrics were enabled.
+   * It may be called from another thread, such as by {@link IgushArrayMonitor}, in which case the layout may be
+   * slightly out of date
+   *
+   * @return the current statistics of this IgushArray
+   */
+  public IgushArrayStats stats() {
+    Metrics m = metrics;
+    int size = this.size;
+    int dequeCount = size == 0 ? 0 : listIndex(size - 1 + front) + 1;
+    if (m == null)
+      return new IgushArrayStats(size, capacity, deqCapacity, dequeCount, false, 0, 0, 0, 0, 0, 0, 0);
+    return new IgushArrayStats(size, capacity, deqCapacity, dequeCount, true, m.inserts.sum(), m.removes.sum(),
+        m.cascades.sum(), m.cascadeDeques.sum(), m.resizes.sum(), m.resizeNanos.sum(), m.elementsCopied.sum());
+  }
+
+  /**
+   * Starts timing a resize, for the metrics if they are enabled and for a JFR event if one is being recorded
+   */
+  private IgushArrayEvents.Resize beginResize() {
+    IgushArrayEvents.Resize event = new IgushArrayEvents.Resize();
+    event.oldCapacity = capacity;
+    event.oldDequeCapacity = deqCapacity;
+    if (metrics != null)
+      event.startNanos = System.nanoTime();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Counts the resize timed by event and commits the event if it is being recorded
+   *
+   * @param cause         grow, trim or retune
+   * @param elementsMoved elements copied into other FixedDeques by the resize
+   */
+  private void endResize(IgushArrayEvents.Resize event, String cause, long elementsMoved) {
+    event.end();
+    if (metrics != null) {
+      metrics.resizes.increment();
+      metrics.resizeNanos.add(System.nanoTime() - event.startNanos);
+      metrics.elementsCopied.add(elementsMoved);
+    }
+    if (event.shouldCommit()) {
+      event.cause = cause;
+      event.newCapacity = capacity;
+      event.newDequeCapacity = deqCapacity;
+      event.elementsMoved = elementsMoved;
+      event.commit();
+    }
+  }
+
+  /**
+   * Commits the event of a bulk operation if it is being recorded and the operation took longer than its threshold
+   *
+   * @param operation the name of the method
+   * @param elements  elements inserted or removed
+   */
+  private void endBulk(IgushArrayEvents.BulkOperation event, String operation, int elements) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.elements = elements;
+      event.size = size;
+      event.commit();
+    }
+  }
+
+  /**
+   * Shrinks the capacity if automatic shrinking is on and less than a quarter of it is used. Skipped while migrating
+   * so that removes keep their bounded cost
+   */
+  private void shrinkIfSparse() {
+    if (autoShrink && oldData == null && size < capacity / SHRINK_RATIO && capacity > MIN_SHRINK_CAPACITY) {
+      shrink(Math.max(size * 2, MIN_SHRINK_CAPACITY));
+    }
+  }
 
+  /**
+   * Reduces the capacity to the smallest one holding minCapacity elements, and at least the current size
+   */
+  private void shrink(int minCapacity) {
+    IgushArrayEvents.Resize event = beginResize();
+    completeGrowth();
+    retuneBlockRatio();
+    minCapacity = Math.max(1, Math.max(minCapacity, size));
+    int newDeqCapacity = optimalDeqCapacity(minCapacity);
+    int newCapacity = roundCapacity(minCapacity, newDeqCapacity);
+    if (newCapacity >= capacity)
+      return;
+    modCount++;
+    if (newDeqCapacity != deqCapacity || front > 0) {
+      // packing the elements again also closes up the free slots at the front
+      repack(newDeqCapacity, newCapacity);
+      endResize(event, "trim", size);
+      return;
+    }
+    int newLastDeqCapacity = newCapacity % newDeqCapacity;
+    int newListCapacity = (int) Math.ceil((double) newCapacity / newDeqCapacity);
+    data.subList(newListCapacity, listCapacity).clear();
+    data.trimToSize();
+    FixedDeque<E> last = owned(data, newListCapacity - 1);
+    int lastCapacity = newLastDeqCapacity != 0 ? newLastDeqCapacity : newDeqCapacity;
+    int moved = 0;
+    if (last.capacity() != lastCapacity) {
+      // the elements of the final deque always fit, as there are at most newCapacity of them
+      FixedDeque<E> smaller = new FixedDeque<>(lastCapacity);
+      moved = last.size;
+      last.moveFrontTo(smaller, last.size);
+      data.set(newListCapacity - 1, smaller);
+    }
+    capacity = newCapacity;
+    lastDeqCapacity = newLastDeqCapacity;
+    listCapacity = newListCapacity;
+    endResize(event, "trim", moved);
   }
 
   /**
@@ -137,93 +454,244 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
    * @param minCapacity the size to expand to
    */
   public void ensureCapacity(int minCapacity) {
+    ensureCapacity(minCapacity, false);
+  }
+
+  /**
+   * Increases the capacity to at least minCapacity. If incremental, new deques are added to data only as they are
+   * needed, and if the deque capacity changes the elements are migrated to the new deques a few at a time
+   */
+  private void ensureCapacity(int minCapacity, boolean incremental) {
+    IgushArrayEvents.Resize event = beginResize();
+    completeGrowth();
     if (minCapacity < capacity) {
       throw new IllegalArgumentException("New capacity: " + minCapacity + " is not larger than the old capacity of " + capacity);
     }
-    capacity = minCapacity;
-
-    // reset the deqCapacities to maintain optimal insert and remove times
-    // quite costly
-
-    int newDeqCapacity = (int) Math.pow(capacity, 0.5);
-    int newLastDeqCapacity = capacity % newDeqCapacity;
-    int newListCapacity = (int) Math.ceil((double) capacity / newDeqCapacity);
-
-    // FIXME might be a redundant check, see how ArrayList ensureCapacity is implemented
-    if (newListCapacity != listCapacity) {
-      // list capacity has changed, so we need to update data
-
-      if (data.get(listCapacity - 1).size() != newDeqCapacity) {
-        // new list capacity means old last FixedDeque needs to be of size deqCapacity
-
-        // TODO: Check if ensure capacity does the above comparison for us already
-        // TODO: This might not be needed given that we update all deques to newDeqCapacity later possibly
-        data.get(listCapacity - 1).ensureCapacity(newDeqCapacity);
+    modCount++;
+    int newDeqCapacity = optimalDeqCapacity(minCapacity);
+    int newCapacity = roundCapacity(minCapacity, newDeqCapacity);
+    if (newDeqCapacity != deqCapacity) {
+      event.incremental = incremental;
+      if (incremental) {
+        startMigration(minCapacity);
+      } else {
+        repack(newDeqCapacity, newCapacity);
       }
+      endResize(event, "grow", incremental ? 0 : size);
+      return;
+    }
+    int newLastDeqCapacity = newCapacity % newDeqCapacity;
+    int newListCapacity = (int) Math.ceil((double) newCapacity / newDeqCapacity);
+
+    // the full deques can be kept as they are, only the old last deque may need to grow
+    int oldLastCapacity = newListCapacity == listCapacity && newLastDeqCapacity != 0 ? newLastDeqCapacity : deqCapacity;
+    FixedDeque<E> oldLast = owned(data, listCapacity - 1);
+    int moved = oldLast.capacity() < oldLastCapacity ? oldLast.size : 0;
+    oldLast.ensureCapacity(oldLastCapacity);
+    data.ensureCapacity(newListCapacity);
+
+    capacity = newCapacity;
+    lastDeqCapacity = newLastDeqCapacity;
+    listCapacity = newListCapacity;
+    if (!incremental) {
+      allocateDeqs(listCapacity - 1);
+    }
+    endResize(event, "grow", moved);
+  }
 
-      data.ensureCapacity(newListCapacity);
+  /**
+   * Copies every element into new FixedDeques of newDeqCapacity, for a total capacity of newCapacity.
+   * Quite costly, every element is copied into the new deques, a ring at a time
+   */
+  private void repack(int newDeqCapacity, int newCapacity) {
+    int newLastDeqCapacity = newCapacity % newDeqCapacity;
+    int newListCapacity = (int) Math.ceil((double) newCapacity / newDeqCapacity);
+    ArrayList<FixedDeque<E>> newData = new ArrayList<>(newListCapacity);
+    for (int i = 0; i < newListCapacity - 1; i++) {
+      newData.add(new FixedDeque<E>(newDeqCapacity));
+    }
+    newData.add(new FixedDeque<E>(newLastDeqCapacity != 0 ? newLastDeqCapacity : newDeqCapacity));
 
-      // add new FixedDeques that are full (not partial capacity)
-      for (int i =  listCapacity; i < newListCapacity - 1; i++) {
-        data.add(new FixedDeque<>(newDeqCapacity));
+    int j = 0;
+    for (int i = 0; i < listCapacity; i++) {
+      FixedDeque<E> deque = data.get(i);
+      int copied = 0;
+      while (copied < deque.size) {
+        FixedDeque<E> target = newData.get(j);
+        int n = Math.min(deque.size - copied, target.capacity() - target.size);
+        deque.copyTo(copied, target.elementData, target.size, n);
+        target.size += n;
+        copied += n;
+        if (target.isFull()) {
+          j++;
+        }
       }
+    }
+    data = newData;
+    front = 0;
+
+    capacity = newCapacity;
+    deqCapacity = newDeqCapacity;
+    lastDeqCapacity = newLastDeqCapacity;
+    listCapacity = newListCapacity;
+    setDeqShift();
+  }
 
-      lastDeqCapacity = newLastDeqCapacity;
-
-      if (lastDeqCapacity != 0) {
-        data.add(new FixedDeque<E>(newLastDeqCapacity));
-      } else {
-        data.add(new FixedDeque<E>(newDeqCapacity));
-      }
+  /**
+   * Returns the capacity each FixedDeque should have for the given total capacity, which is the block ratio times
+   * the square root of the capacity, or the power of two nearest to it when using power of two blocks
+   */
+  private int optimalDeqCapacity(int capacity) {
+    int optimal = Math.max(1, (int) Math.min(capacity, Math.pow(capacity, 0.5) * blockRatio));
+    if (powerOfTwoBlocks) {
+      int lower = Integer.highestOneBit(optimal);
+      return optimal - lower <= (lower << 1) - optimal ? lower : lower << 1;
+    }
+    return optimal;
+  }
 
-      listCapacity = newListCapacity;
+  /**
+   * Rounds the capacity up to a multiple of the deque capacity when using power of two blocks, so that the final
+   * FixedDeque has the same power of two capacity as the others
+   */
+  private int roundCapacity(int capacity, int deqCapacity) {
+    if (powerOfTwoBlocks) {
+      return (int) Math.min(Integer.MAX_VALUE, (capacity + (long) deqCapacity - 1) / deqCapacity * deqCapacity);
     }
+    return capacity;
+  }
+
+  private void setDeqShift() {
+    deqShift = powerOfTwoBlocks ? Integer.numberOfTrailingZeros(deqCapacity) : -1;
+    deqMask = deqCapacity - 1;
+  }
 
+  // index of the FixedDeque holding the element at index
+  private int listIndex(int index) {
+    return deqShift >= 0 ? index >>> deqShift : index / deqCapacity;
+  }
 
-    // deq capacity changed, which implies list capacity must change
-    if (newDeqCapacity != deqCapacity) {
+  // position inside its FixedDeque of the element at index
+  private int deqIndex(int index) {
+    return deqShift >= 0 ? index & deqMask : index % deqCapacity;
+  }
 
+  /**
+   * Grows the capacity by a factor of 1.5, and by at least one
+   */
+  private void grow() {
+    retuneBlockRatio();
+    ensureCapacity(Math.max(capacity + 1, (int) (capacity * 1.5)), incrementalGrowth);
+  }
 
+  /**
+   * Switches to the layout for minCapacity without moving any elements. The current deques become oldData and data
+   * starts out empty, deques of the new capacity are added to it as they are needed
+   */
+  private void startMigration(int minCapacity) {
+    oldData = data;
+    oldDeqCapacity = deqCapacity;
+    oldFirst = 0;
+    migrated = 0;
+    // any free slots at the front become the room at the front of the first deque of oldData
+    front = 0;
+    // the smaller final deque is grown so that elements added while migrating can follow it
+    owned(oldData, listCapacity - 1).ensureCapacity(deqCapacity);
+
+    deqCapacity = optimalDeqCapacity(minCapacity);
+    capacity = roundCapacity(minCapacity, deqCapacity);
+    lastDeqCapacity = capacity % deqCapacity;
+    listCapacity = (int) Math.ceil((double) capacity / deqCapacity);
+    setDeqShift();
+    data = new ArrayList<>(listCapacity);
+  }
 
-      // go from 0 to listCapacity instead of listCapacity - 1 as list capacity must change, and the final fixedDeque
-      // should now have normal deq size.
-      for (int i = 0; i < listCapacity; i++) {
-        // FIXME BUG: bug here, ensureing capaciting on something liek begin > end... not working
-        data.get(i).ensureCapacity(newDeqCapacity);
+  /**
+   * Moves up to count elements from the front of oldData to the end of data
+   */
+  private void migrate(int count) {
+    while (count > 0 && migrated < size) {
+      FixedDeque<E> source = oldData.get(oldFirst);
+      if (source.size == 0) {
+        oldData.set(oldFirst++, null);
+        continue;
       }
-      // now we have to shift all data down to fill in holes, fairly costly to do
+      source = owned(oldData, oldFirst);
+      int listIndex = listIndex(migrated);
+      allocateDeqs(listIndex);
+      FixedDeque<E> target = data.get(listIndex);
+      int n = Math.min(count, Math.min(source.size, target.capacity() - target.size));
+      source.moveFrontTo(target, n);
+      if (metrics != null)
+        metrics.elementsCopied.add(n);
+      migrated += n;
+      count -= n;
+    }
+    if (migrated == size) {
+      oldData = null;
+    }
+  }
+
+  /**
+   * Moves all remaining elements into data if migrating, and adds all deques not yet added to data
+   */
+  private void completeGrowth() {
+    if (oldData != null) {
+      migrate(Integer.MAX_VALUE);
+    }
+    allocateDeqs(listCapacity - 1);
+  }
 
-      // store index of the last partially filled fixed deque
-      int indexOfLastPartialFixedDeque = (int) Math.ceil(((double) size()) / newDeqCapacity);
+  /**
+   * Adds the deque holding the end of the elements in data, and at least one more, to data if its deques are being
+   * added as they are needed
+   */
+  private void allocateNextDeqs() {
+    if (data.size() < listCapacity) {
+      int end = oldData != null ? migrated : size + front;
+      allocateDeqs(Math.min(listCapacity - 1, Math.max(listIndex(end), data.size())));
+    }
+  }
 
-      // now update the deqCapacity
-      deqCapacity = newDeqCapacity;
+  /**
+   * Adds empty deques to data until it holds the one at listIndex
+   */
+  private void allocateDeqs(int listIndex) {
+    while (data.size() <= listIndex) {
+      boolean last = data.size() == listCapacity - 1 && lastDeqCapacity != 0;
+      data.add(new FixedDeque<E>(last ? lastDeqCapacity : deqCapacity));
+    }
+  }
 
-      int j = 0;
+  // the deque holding the element at index, in oldData if migrating and it is not migrated yet
+  private FixedDeque<E> dequeOf(int index) {
+    return oldData != null && index >= migrated ? oldData.get(oldListIndex(index)) : data.get(listIndex(index + front));
+  }
 
-      while (j < indexOfLastPartialFixedDeque) {
-        int higherIndice = j + 1;
+  // index of the first element of the deque holding the element at index
+  private int dequeStart(int index) {
+    if (oldData != null && index >= migrated)
+      return index - oldDeqIndex(index);
+    return Math.max(0, index - deqIndex(index + front));
+  }
 
-        // keep filling FixedDeque at indice j until it is full. Pop from FixedDeque higherIndice until it is empty
-        // before moving on to next FixedDeque to pop from.
-        while (!data.get(j).isFull()) {
+  // position inside its FixedDeque of the element at index, the first deque starting front slots in
+  private int ringIndex(int index) {
+    int pos = index + front;
+    return pos < deqCapacity ? index : deqIndex(pos);
+  }
 
-          // data.get(j) fixedDeque has space left, fill it up with array data from next index.
-          if (data.get(higherIndice).isEmpty()) {
-            higherIndice++;
-            if (higherIndice > listCapacity - 1) {
-              break;
-            }
-          }
-          else {
-            E popped = data.get(higherIndice).popFront();
-            data.get(j).add(popped);
-          }
-        }
-        j++;
-      }
-    }
+  // while migrating, index in oldData of the deque holding the element at index
+  private int oldListIndex(int index) {
+    int i = index - migrated - oldData.get(oldFirst).size;
+    return i < 0 ? oldFirst : oldFirst + 1 + i / oldDeqCapacity;
+  }
 
+  // while migrating, position inside its deque in oldData of the element at index
+  private int oldDeqIndex(int index) {
+    int i = index - migrated;
+    int firstSize = oldData.get(oldFirst).size;
+    return i < firstSize ? i : (i - firstSize) % oldDeqCapacity;
   }
 
   /**
@@ -243,10 +711,7 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
    */
   @Override
   public boolean isEmpty() {
-    if (!data.isEmpty()) {
-      return data.get(0).isEmpty();
-    }
-    return true;
+    return size == 0;
   }
 
   /**
@@ -301,15 +766,71 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
     return -1;
   }
 
+  /**
+   * Returns the index of the first element that is not less than key, or greater than key if upper, assuming this
+   * IgushArray is sorted by c. The FixedDeque holding it is found with a binary search over the last element of
+   * each deque, and the position inside it with a binary search over its ring, for O(log N) comparisons.
+   *
+   * @param key   the key to search for
+   * @param c     the comparator the IgushArray is sorted by
+   * @param upper whether to skip the elements equal to key
+   * @return the index of the first element not less than (or greater than) key, or size if there is none
+   */
+  @SuppressWarnings("unchecked")
+  int bound(E key, Comparator<? super E> c, boolean upper) {
+    completeGrowth();
+    if (size == 0)
+      return 0;
+    int lo = listIndex(front); // the first deque may be empty
+    int hi = listIndex(size - 1 + front);
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      FixedDeque<E> deque = data.get(mid);
+      int cmp = c.compare((E) deque.elementData[deque.physicalIndex(deque.size - 1)], key);
+      if (upper ? cmp <= 0 : cmp < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    FixedDeque<E> deque = data.get(lo);
+    int first = 0;
+    int last = deque.size;
+    while (first < last) {
+      int mid = (first + last) >>> 1;
+      int cmp = c.compare((E) deque.elementData[deque.physicalIndex(mid)], key);
+      if (upper ? cmp <= 0 : cmp < 0) {
+        first = mid + 1;
+      } else {
+        last = mid;
+      }
+    }
+    // every deque before the one at lo is full, apart from the free slots at the front of the first
+    return lo == 0 ? first : lo * deqCapacity - front + first;
+  }
+
   /**
    * Returns a shallow copy of this IgushArray instance.  (The
-   * elements themselves are not copied.) FIXME
+   * elements themselves are not copied.)
+   *
+   * The copy shares the FixedDeques of this IgushArray, so it is made in O(N^1/2). Each of the two copies a shared
+   * FixedDeque the first time it changes it, so changes to one are never seen by the other.
    *
    * @return a clone of this IgushArray instance
    */
+  @Override
   public Object clone() {
     try {
-      IgushArray<?> v = (IgushArray<?>) super.clone();
+      completeGrowth();
+      for (FixedDeque<E> deque : data) {
+        deque.shared = true;
+      }
+      sharedDeqs = true;
+      @SuppressWarnings("unchecked")
+      IgushArray<E> v = (IgushArray<E>) super.clone();
+      v.data = new ArrayList<>(data);
+      v.modCount = 0;
+      v.metrics = metrics != null ? new Metrics() : null;
       return v;
     } catch (CloneNotSupportedException e) {
       // shouldn't happen
@@ -317,6 +838,86 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
     }
   }
 
+  /**
+   * Saves the state of this IgushArray to a stream. The FixedDeques are not written, only the capacity, the settings
+   * and then the elements in order, so that the layout, any free slots at the front and any shared deques are left
+   * behind.
+   *
+   * @serialData the non-transient fields, followed by all of the elements in proper sequence
+   */
+  private void writeObject(ObjectOutputStream s) throws IOException {
+    int expectedModCount = modCount;
+    s.defaultWriteObject();
+    for (int i = 0; i < size; i++) {
+      s.writeObject(get(i));
+    }
+    if (modCount != expectedModCount)
+      throw new ConcurrentModificationException();
+  }
+
+  /**
+   * Reconstitutes an IgushArray from a stream, laying the elements out in new FixedDeques for the saved capacity
+   */
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+    s.defaultReadObject();
+    if (size < 0 || capacity <= 0 || size > capacity)
+      throw new InvalidObjectException("Invalid size: " + size + ", capacity: " + capacity);
+    if (!(blockRatio > 0) || Double.isInfinite(blockRatio))
+      throw new InvalidObjectException("Illegal Block Ratio: " + blockRatio);
+    allocate(capacity);
+    for (int i = 0; i < size; i++) {
+      data.get(listIndex(i)).add((E) s.readObject());
+    }
+  }
+
+  /**
+   * Returns an immutable view of the elements of this IgushArray as they are now. The view shares the FixedDeques
+   * holding the elements instead of copying them, so it is made in O(N^1/2), and later changes to this IgushArray
+   * copy a shared FixedDeque the first time they change it. Reading the view while this IgushArray is changed, by
+   * another thread for example, is safe as long as the view itself was safely published to the reading thread. Any
+   * incremental growth in progress is completed first.
+   *
+   * @return an unmodifiable list of the current elements of this IgushArray
+   */
+  public List<E> snapshot() {
+    completeGrowth();
+    int usedDeqs = size == 0 ? 0 : listIndex(size - 1 + front) + 1;
+    ArrayList<FixedDeque<E>> deqs = new ArrayList<>(data.subList(0, usedDeqs));
+    for (FixedDeque<E> deque : deqs) {
+      deque.shared = true;
+    }
+    sharedDeqs = true;
+    return new Snapshot<>(deqs, deqCapacity, front, size);
+  }
+
+  /**
+   * Returns the FixedDeque at listIndex of deqs, first replacing it with a copy if it is shared, so that it can be
+   * changed. Replacing it does not change modCount, as set does not, but counts in dequeCopies so that iterators
+   * reading the ring of the replaced deque switch to the copy.
+   */
+  private FixedDeque<E> owned(ArrayList<FixedDeque<E>> deqs, int listIndex) {
+    FixedDeque<E> deque = deqs.get(listIndex);
+    if (deque.shared) {
+      deque = deque.copy();
+      deqs.set(listIndex, deque);
+      dequeCopies++;
+    }
+    return deque;
+  }
+
+  /**
+   * Replaces every shared FixedDeque from index from to index to, inclusive, of deqs with a copy, so that they can
+   * be changed
+   */
+  private void own(ArrayList<FixedDeque<E>> deqs, int from, int to) {
+    if (!sharedDeqs)
+      return;
+    for (int i = from; i <= to; i++) {
+      owned(deqs, i);
+    }
+  }
+
   /**
    * Return an Iterator object
    *
@@ -327,34 +928,75 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
     return listIterator();
   }
 
-  //FIXME ADD DOCUMENTATION
+  /**
+   * Returns an array containing all of the elements in this IgushArray in proper sequence (from first to last
+   * element). The ring of each FixedDeque is copied with at most two array copies.
+   *
+   * @return an array containing all of the elements in this IgushArray in proper sequence
+   */
   @Override
   public Object[] toArray() {
     Object[] a = new Object[size];
-    ListIterator<E> itr = listIterator();
-    while (itr.hasNext()) {
-      a[itr.nextIndex()] = itr.next();
-    }
+    copyTo(0, a, 0, size);
     return a;
   }
 
-  /*FIXME ADD DOCUMENTATION. PROBABLY INCORRECT IMPLEMENTATION
+  /**
+   * Returns an array containing all of the elements in this IgushArray in proper sequence (from first to last
+   * element); the runtime type of the returned array is that of the specified array. If the IgushArray fits in the
+   * specified array, it is returned therein, with the element following the end of the IgushArray set to null.
+   * Otherwise, a new array is allocated with the runtime type of the specified array and the size of this IgushArray.
+   *
+   * @param a the array into which the elements of the IgushArray are to be stored, if it is big enough; otherwise, a
+   *          new array of the same runtime type is allocated for this purpose.
+   * @return an array containing the elements of the IgushArray
+   * @throws ArrayStoreException  if the runtime type of the specified array is not a supertype of the runtime type of
+   *                              every element in this IgushArray
+   * @throws NullPointerException if the specified array is null
    */
   @Override
+  @SuppressWarnings("unchecked")
   public <T> T[] toArray(T[] a) {
-    T[] arr = (T[]) new Object[size()];
+    if (a.length < size)
+      a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+    copyTo(0, a, 0, size);
+    if (a.length > size)
+      a[size] = null;
+    return a;
+  }
 
-    ListIterator<E> itr = listIterator();
-    while (itr.hasNext()) {
-      arr[itr.nextIndex()] = (T) itr.next();
+  /**
+   * Copies len elements of this IgushArray, starting at index from, into dest starting at destPos. Each FixedDeque
+   * in the range is copied with at most two array copies, so a window of the IgushArray can be exported without the
+   * overhead of an iterator.
+   *
+   * @param from    index of the first element to copy
+   * @param dest    the destination array
+   * @param destPos starting position in the destination array
+   * @param len     the number of elements to copy
+   * @throws IndexOutOfBoundsException if the range of the IgushArray or of dest is out of bounds
+   * @throws ArrayStoreException       if an element cannot be stored in dest because of its type
+   */
+  public void copyTo(int from, Object[] dest, int destPos, int len) {
+    if (from < 0 || len < 0 || from > size - len)
+      throw new IndexOutOfBoundsException("From Index: " + from + ", Length: " + len + ", Size: " + size);
+    if (destPos < 0 || destPos > dest.length - len)
+      throw new IndexOutOfBoundsException("Destination Position: " + destPos + ", Length: " + len
+          + ", Destination Length: " + dest.length);
+    while (len > 0) {
+      FixedDeque<E> deque = dequeOf(from);
+      int offset = from - dequeStart(from);
+      int n = Math.min(len, deque.size - offset);
+      deque.copyTo(offset, dest, destPos, n);
+      from += n;
+      destPos += n;
+      len -= n;
     }
-
-    return arr;
   }
 
   private void rangeCheck(int index) {
     // Attempting to access an index outside of the allocated memory
-    if (index >= size)
+    if (index >= size || index < 0)
       throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
   }
 
@@ -377,9 +1019,18 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
   @Override
   public E get(int index) {
     rangeCheck(index);
-
-    int listIndex = (int) (index / deqCapacity);
-    int deqIndex = index % deqCapacity;
+    if (oldData != null && index >= migrated)
+      return oldData.get(oldListIndex(index)).get(oldDeqIndex(index));
+    // the first deque holds its elements from the front of its ring, the others start front positions later
+    int pos = index + front;
+    if (deqShift >= 0) {
+      // power of two blocks, the ring offset inside the deque is masked as well
+      return pos < deqCapacity ? data.get(0).getMasked(index) : data.get(pos >>> deqShift).getMasked(pos & deqMask);
+    }
+    if (pos < deqCapacity)
+      return data.get(0).get(index);
+    int listIndex = pos / deqCapacity;
+    int deqIndex = pos - listIndex * deqCapacity;
     return data.get(listIndex).get(deqIndex);
   }
 
@@ -393,10 +1044,20 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
    */
   @Override
   public E set(int index, E element) {
-    int listIndex = (int) (index / deqCapacity);
-    int deqIndex = index % deqCapacity;
-
-    return data.get(listIndex).set(deqIndex, element);
+    rangeCheck(index);
+    if (oldData != null && index >= migrated)
+      return owned(oldData, oldListIndex(index)).set(oldDeqIndex(index), element);
+    int pos = index + front;
+    if (deqShift >= 0) {
+      if (pos < deqCapacity)
+        return owned(data, 0).setMasked(index, element);
+      return owned(data, pos >>> deqShift).setMasked(pos & deqMask, element);
+    }
+    if (pos < deqCapacity)
+      return owned(data, 0).set(index, element);
+    int listIndex = pos / deqCapacity;
+    int deqIndex = pos - listIndex * deqCapacity;
+    return owned(data, listIndex).set(deqIndex, element);
   }
 
   /**
@@ -409,11 +1070,22 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
   @Override
   //FIXME will also automatically reallocate memory if size reaches capacity
   public boolean add(E e) {
-    if (size() >= capacity) {
-      ensureCapacity((int) (capacity * 1.5));
+    modCount++;
+    if (metrics != null)
+      metrics.inserts.increment();
+    if (size + front >= capacity) {
+      grow();
+    }
+    if (oldData != null) {
+      migrate(deqCapacity);
+      if (oldData != null) {
+        addOld(size, e);
+        size++;
+        return true;
+      }
     }
-    int listIndex = (int) (size() / deqCapacity);
-    data.get(listIndex).add(e);
+    allocateNextDeqs();
+    owned(data, listIndex(size + front)).add(e);
     size++;
     return true;
   }
@@ -421,30 +1093,80 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
   /**
    * Adds (Inserts) element to the specified position into the IgushArray. If capacity is exceeded, memory is auto reallocated FIXME
    *
+   * Inserting into the front half moves the elements before index towards the front, into free slots at the front
+   * of the first FixedDeque, so adding at or near index 0 is O(1) amortized.
+   *
    * @param index   position in the IgushArray to add the element
    * @param element the element to add to the specified position
    */
   @Override
   public void add(int index, E element) {
     rangeCheckForAdd(index);
-    if (size() >= capacity) {
-      ensureCapacity((int) (capacity * 1.5));
+    modCount++;
+    if (adaptiveBlocks && index != 0 && index != size)
+      sampledShifts++;
+    if (metrics != null)
+      metrics.inserts.increment();
+    if (oldData == null && front == 0 && index < size - index) {
+      openFront();
     }
-    int listIndex = index / deqCapacity;
-    int deqIndex = index % deqCapacity;
-    FixedDeque<E> deque = data.get(listIndex);
-    if (!deque.fixedAdd(deqIndex, element)) {
-      // if fail to add, then deque must be full
-      //O(n^1/2) insertion process into N^1/2 capacity deque
-      // remove end of the deque to give space for element and avoid expanding deque size
+    if (front > 0 && (index < size - index || index + front < deqCapacity || size + front >= capacity)) {
+      addFront(index, element);
+      size++;
+      return;
+    }
+    if (size + front >= capacity) {
+      grow();
+    }
+    if (oldData != null) {
+      migrate(deqCapacity);
+      if (oldData != null && index > migrated) {
+        addOld(index, element);
+        size++;
+        return;
+      }
+    }
+    // the deque holding the end of the elements in data has room, so the shift up stops there
+    allocateNextDeqs();
+    if (oldData != null) {
+      migrated++;
+    }
+    int listIndex = listIndex(index + front);
+    int deqIndex = ringIndex(index);
+    // the shift up passes through the deques up to the one holding the new end of the elements in data
+    own(data, listIndex, listIndex(oldData != null ? migrated - 1 : size + front));
+    FixedDeque<E> deque = data.get(listIndex);
+    if (!deque.fixedAdd(deqIndex, element)) {
+      // if fail to add, then deque must be full
+      //O(n^1/2) insertion process into N^1/2 capacity deque
+      // remove end of the deque to give space for element and avoid expanding deque size
       E removedElement = deque.remove(deque.size() - 1);
       deque.fixedAdd(deqIndex, element);
-      shiftUp(listIndex + 1, removedElement);
+      shiftUp(data, listIndex + 1, removedElement);
 
     }
     size++;
   }
 
+  /**
+   * Inserts element at index, which is after the migrated elements, into oldData. A deque is added to oldData if the
+   * last one is full
+   */
+  private void addOld(int index, E element) {
+    if (oldListIndex(size) == oldData.size()) {
+      oldData.add(new FixedDeque<E>(oldDeqCapacity));
+    }
+    int listIndex = oldListIndex(index);
+    int deqIndex = oldDeqIndex(index);
+    own(oldData, listIndex, oldListIndex(size));
+    FixedDeque<E> deque = oldData.get(listIndex);
+    if (!deque.fixedAdd(deqIndex, element)) {
+      E removedElement = deque.remove(deque.size() - 1);
+      deque.fixedAdd(deqIndex, element);
+      shiftUp(oldData, listIndex + 1, removedElement);
+    }
+  }
+
   /**
    * Removes the element stored in the specified position in the IgushArray
    *
@@ -454,41 +1176,393 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
   @Override
   public E remove(int index) {
     rangeCheck(index);
-    int listIndex = index / deqCapacity;
-    int deqIndex = index % deqCapacity;
+    modCount++;
+    if (adaptiveBlocks && index != 0 && index != size - 1)
+      sampledShifts++;
+    if (metrics != null)
+      metrics.removes.increment();
+    if (oldData == null && index < size - 1 - index) {
+      E removedElement = removeFront(index);
+      size--;
+      shrinkIfSparse();
+      return removedElement;
+    }
+    int end = size + front; // end of the elements in data
+    if (oldData != null) {
+      migrate(deqCapacity);
+      if (oldData != null) {
+        if (index >= migrated)
+          return removeOld(index);
+        end = migrated--;
+      }
+    }
+    int listIndex = listIndex(index + front);
+    int deqIndex = ringIndex(index);
+    own(data, listIndex, listIndex(end - 1));
     FixedDeque<E> deque = data.get(listIndex);
     E removedElement = deque.remove(deqIndex);
     // only shift down if listIndex isn't final listIndex
-    shiftDown(listIndex + 1);
+    shiftDown(data, listIndex + 1, listIndex(end - 1));
+    size--;
+    if (size == 0) {
+      front = 0;
+    }
+    shrinkIfSparse();
+    return removedElement;
+  }
+
+  /**
+   * Moves an empty FixedDeque from the end of data to its front, so that elements can be added at the front of the
+   * IgushArray. Does nothing if the last deque holds elements. The last deque is reused unless it is shared or is the
+   * smaller final deque, so pushing and popping across the start of a deque allocates nothing. If the smaller final
+   * deque is moved, the deque now last has the full capacity, so the capacity grows by the difference
+   */
+  private void openFront() {
+    if (size == 0 || listIndex(size - 1) >= listCapacity - 1)
+      return;
+    FixedDeque<E> empty = null;
+    if (data.size() == listCapacity) {
+      empty = data.remove(listCapacity - 1);
+    }
+    if (empty == null || empty.shared || empty.capacity() != deqCapacity) {
+      empty = new FixedDeque<E>(deqCapacity);
+    }
+    data.add(0, empty);
+    if (lastDeqCapacity != 0 && data.size() == listCapacity) {
+      capacity += deqCapacity - lastDeqCapacity;
+      lastDeqCapacity = 0;
+    }
+    front = deqCapacity;
+  }
+
+  /**
+   * Inserts element at index, while there are free slots at the front of the first FixedDeque, by moving the
+   * elements before index one slot towards the front. The first element of each deque up to the one holding index
+   * moves to the end of the deque before it, so only the deques before index are touched
+   */
+  private void addFront(int index, E element) {
+    int pos = index + front;
+    int listIndex = pos < deqCapacity ? 0 : listIndex(pos);
+    int deqIndex = listIndex == 0 ? index : deqIndex(pos);
+    if (deqIndex == 0 && listIndex > 0) {
+      // the start of a deque is the end of the deque before once the elements have moved
+      deqIndex = data.get(--listIndex).size;
+    }
+    own(data, 0, listIndex);
+    shiftDown(data, 1, listIndex);
+    // every deque after the first gave its first element to the one before
+    data.get(listIndex).fixedAdd(listIndex == 0 ? deqIndex : deqIndex - 1, element);
+    front--;
+  }
+
+  /**
+   * Removes the element at index by moving the elements before it one slot towards the end, which leaves one more
+   * free slot at the front of the first FixedDeque. The last element of each deque before the one holding index moves
+   * to the front of the deque after it. A first deque left empty stays until the next removal at the front
+   */
+  private E removeFront(int index) {
+    if (front == deqCapacity) {
+      // an empty first deque is only moved away when it is needed, so pushes and pops at the front don't thrash
+      dropFront();
+    }
+    int pos = index + front;
+    int listIndex = pos < deqCapacity ? 0 : listIndex(pos);
+    own(data, 0, listIndex);
+    E removedElement = data.get(listIndex).remove(listIndex == 0 ? index : deqIndex(pos));
+    if (listIndex > 0) {
+      shiftUp(data, 1, data.get(0).pop());
+    }
+    front++;
+    return removedElement;
+  }
+
+  /**
+   * Moves the first FixedDeque, emptied by removals at the front, to the end of data so that the capacity is kept.
+   * If the smaller final deque is no longer last it is given the full capacity and a new smaller deque goes last
+   */
+  private void dropFront() {
+    FixedDeque<E> empty = data.remove(0);
+    front = 0;
+    if (data.size() == listCapacity - 1) {
+      if (lastDeqCapacity != 0) {
+        owned(data, listCapacity - 2).ensureCapacity(deqCapacity);
+        data.add(new FixedDeque<E>(lastDeqCapacity));
+      } else {
+        data.add(empty.shared ? new FixedDeque<E>(deqCapacity) : empty);
+      }
+    }
+  }
+
+  /**
+   * Fills the free slots at the front of the first FixedDeque with null placeholders counted as elements, so that the
+   * bulk operations can treat every deque before the end as full. The placeholders stay in front of every index the
+   * bulk operation is given, and so at the front of the first deque, from which unpadFront removes them again
+   *
+   * @return the number of placeholders, which is added to the indices given to the bulk operation
+   */
+  private int padFront() {
+    int padding = front;
+    if (padding > 0) {
+      owned(data, 0).padFront(padding);
+      size += padding;
+      front = 0;
+    }
+    return padding;
+  }
+
+  /**
+   * Removes the placeholders added by padFront, making them free slots at the front again
+   */
+  private void unpadFront(int padding) {
+    if (padding > 0) {
+      owned(data, 0).removeFront(padding);
+      size -= padding;
+      front = size == 0 ? 0 : padding;
+    }
+  }
+
+  /**
+   * Closes up the free slots at the front by pulling the front of every FixedDeque into the one before it, after
+   * which every deque before the end is full. O(N) in the worst case, so only used by operations that are O(N) anyway
+   */
+  private void closeFront() {
+    if (front == deqCapacity) {
+      dropFront();
+      return;
+    }
+    int padding = padFront();
+    if (padding > 0) {
+      own(data, 0, listCapacity - 1);
+      removeCarried(0, padding);
+    }
+  }
+
+  /**
+   * Removes the element at index, which is after the migrated elements, from oldData. The first deque of oldData
+   * may have room at its front, so only removing from a later deque shifts the following deques down
+   */
+  private E removeOld(int index) {
+    int listIndex = oldListIndex(index);
+    int lastListIndex = oldListIndex(size - 1);
+    own(oldData, listIndex, lastListIndex);
+    E removedElement = oldData.get(listIndex).remove(oldDeqIndex(index));
+    if (listIndex != oldFirst) {
+      shiftDown(oldData, listIndex + 1, lastListIndex);
+    }
     size--;
     return removedElement;
   }
 
   /**
    * Removes the first instance of the specified object in the IgushArray
-   * FIXME DOCUMENTATION
    *
    * @param o the instance of the element to remove
-   * @return true if it is successfully removed
+   * @return true if it is successfully removed, false if the IgushArray does not contain it
    */
   @Override
   public boolean remove(Object o) {
-    //FIXME can improve performance by using a no bounds checked remove operation
+    return removeFirstOccurrence(o);
+  }
 
-    remove(indexOf(o));
+  /**
+   * Inserts the element at the front of the IgushArray, into a free slot at the front of the first FixedDeque.
+   * O(1) amortized, as a whole FixedDeque of free slots is moved to the front when there are none left
+   *
+   * @param e the element to add
+   */
+  @Override
+  public void addFirst(E e) {
+    add(0, e);
+  }
+
+  /**
+   * Appends the element to the end of the IgushArray, see {@link #add(Object)}
+   *
+   * @param e the element to add
+   */
+  @Override
+  public void addLast(E e) {
+    add(e);
+  }
+
+  @Override
+  public boolean offerFirst(E e) {
+    add(0, e);
     return true;
   }
 
+  @Override
+  public boolean offerLast(E e) {
+    return add(e);
+  }
+
+  /**
+   * Removes and returns the first element of the IgushArray. O(1) amortized, the slot it leaves becomes a free slot
+   * at the front of the first FixedDeque, and an emptied first FixedDeque is moved to the end
+   *
+   * @return the first element
+   * @throws NoSuchElementException if the IgushArray is empty
+   */
+  @Override
+  public E removeFirst() {
+    if (size == 0)
+      throw new NoSuchElementException();
+    return remove(0);
+  }
+
+  /**
+   * Removes and returns the last element of the IgushArray
+   *
+   * @return the last element
+   * @throws NoSuchElementException if the IgushArray is empty
+   */
+  @Override
+  public E removeLast() {
+    if (size == 0)
+      throw new NoSuchElementException();
+    return remove(size - 1);
+  }
+
+  @Override
+  public E pollFirst() {
+    return size == 0 ? null : remove(0);
+  }
+
+  @Override
+  public E pollLast() {
+    return size == 0 ? null : remove(size - 1);
+  }
+
+  @Override
+  public E getFirst() {
+    if (size == 0)
+      throw new NoSuchElementException();
+    return get(0);
+  }
+
+  @Override
+  public E getLast() {
+    if (size == 0)
+      throw new NoSuchElementException();
+    return get(size - 1);
+  }
+
+  @Override
+  public E peekFirst() {
+    return size == 0 ? null : get(0);
+  }
+
+  @Override
+  public E peekLast() {
+    return size == 0 ? null : get(size - 1);
+  }
+
+  @Override
+  public boolean removeFirstOccurrence(Object o) {
+    int index = indexOf(o);
+    if (index < 0)
+      return false;
+    remove(index);
+    return true;
+  }
+
+  @Override
+  public boolean removeLastOccurrence(Object o) {
+    int index = lastIndexOf(o);
+    if (index < 0)
+      return false;
+    remove(index);
+    return true;
+  }
+
+  @Override
+  public boolean offer(E e) {
+    return add(e);
+  }
+
+  @Override
+  public E remove() {
+    return removeFirst();
+  }
+
+  @Override
+  public E poll() {
+    return pollFirst();
+  }
+
+  @Override
+  public E element() {
+    return getFirst();
+  }
+
+  @Override
+  public E peek() {
+    return peekFirst();
+  }
+
+  @Override
+  public void push(E e) {
+    addFirst(e);
+  }
+
+  @Override
+  public E pop() {
+    return removeFirst();
+  }
+
+  /**
+   * Returns an iterator over the elements of the IgushArray from last to first. It walks the rings of the
+   * FixedDeques like the list iterator, and is fail-fast in the same way
+   *
+   * @return an iterator over the elements in reverse order
+   */
+  @Override
+  public Iterator<E> descendingIterator() {
+    ListIterator<E> itr = new ListItr(size);
+    return new Iterator<E>() {
+      @Override
+      public boolean hasNext() {
+        return itr.hasPrevious();
+      }
+
+      @Override
+      public E next() {
+        return itr.previous();
+      }
+
+      @Override
+      public void remove() {
+        itr.remove();
+      }
+    };
+  }
+
   /**
    * Removes all of the elements from this IgushArray.
    * The list will be empty after this call returns
    */
   @Override
   public void clear() {
+    modCount++;
+    if (metrics != null)
+      metrics.removes.add(size);
+    IgushArrayEvents.BulkOperation event = new IgushArrayEvents.BulkOperation();
+    event.begin();
+    int removed = size;
+    completeGrowth();
     for (int i = 0; i < listCapacity; i++) {
-      data.get(i).clear();
+      FixedDeque<E> deque = data.get(i);
+      if (deque.shared) {
+        // nothing of it is kept, so a new deque is used rather than a copy
+        data.set(i, new FixedDeque<>(deque.capacity()));
+      } else {
+        deque.clear();
+      }
     }
     size = 0;
+    front = 0;
+    endBulk(event, "clear", removed);
+    shrinkIfSparse();
   }
 
   /**
@@ -500,30 +1574,161 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
    */
   @Override
   public boolean addAll(Collection<? extends E> c) {
-    Iterator<?> itr = c.iterator();
-    boolean flag = false;
-    while (itr.hasNext()) {
-        add((E) itr.next());
-        flag = true;
-    }
-    return flag;
+    return addAll(size, c);
   }
 
   /**
    * Inserts all of the elements in the specified collection into this IgushArray,
    * starting at the specified position.
    *
-   * @param c
+   * The capacity is checked once, then the elements after index are moved a single time: whole FixedDeques are
+   * spliced in for every deqCapacity elements inserted, and the remaining k % deqCapacity elements are carried
+   * through the following deques by rotating each of them. Inserting k elements is O(k + N^1/2) array copies
+   * rather than k separate O(N^1/2) insertions.
+   *
+   * @param index position in the IgushArray to insert the first element
+   * @param c     the collection whose elements are to be inserted
    * @return true if this IgushArray was modified
    */
   @Override
   public boolean addAll(int index, Collection<? extends E> c) {
-    Iterator<?> itr = c.iterator();
-    while (itr.hasNext()) {
-        add(index, (E) itr.next());
-        index++;
+    rangeCheckForAdd(index);
+    IgushArrayEvents.BulkOperation event = new IgushArrayEvents.BulkOperation();
+    event.begin();
+    completeGrowth();
+    Object[] a = c.toArray();
+    int k = a.length;
+    if (k == 0)
+      return false;
+    modCount++;
+    if (metrics != null)
+      metrics.inserts.add(k);
+    if ((long) size + front + k > capacity) {
+      ensureCapacity((int) Math.min(Integer.MAX_VALUE, Math.max((long) size + front + k, (long) (capacity * 1.5))));
+    }
+    int padding = padFront();
+    index += padding;
+    own(data, listIndex(index), listCapacity - 1);
+
+    if (index == size) {
+      appendAll(a);
+    } else {
+      int fullDeqs = k / deqCapacity;
+      int rest = k - fullDeqs * deqCapacity;
+      // insert the last rest elements first, then the full deques go in front of them at the same index
+      if (rest > 0) {
+        insertCarried(index, a, fullDeqs * deqCapacity, rest);
+      }
+      if (fullDeqs > 0) {
+        insertDeqs(index, a, fullDeqs);
+      }
+    }
+    unpadFront(padding);
+    endBulk(event, "addAll", k);
+    return true;
+  }
+
+  /**
+   * Appends the elements of a, filling each FixedDeque from the one at index size with a single array copy
+   */
+  private void appendAll(Object[] a) {
+    int pos = 0;
+    while (pos < a.length) {
+      FixedDeque<E> deque = data.get(listIndex(size));
+      int n = Math.min(a.length - pos, deque.capacity() - deque.size);
+      deque.append(a, pos, n);
+      pos += n;
+      size += n;
     }
-    return c.size() > 0;
+  }
+
+  /**
+   * Inserts len < deqCapacity elements of a at index. The elements pushed out of the end of each FixedDeque are
+   * carried to the front of the next, which rotates a full deque by len
+   */
+  private void insertCarried(int index, Object[] a, int from, int len) {
+    Object[] carry = new Object[len];
+    Object[] spill = new Object[len];
+    int listIndex = listIndex(index);
+    int carried = data.get(listIndex).insertAll(deqIndex(index), a, from, len, carry);
+    while (carried > 0) {
+      listIndex++;
+      carried = data.get(listIndex).insertAll(0, carry, 0, carried, spill);
+      Object[] temp = carry;
+      carry = spill;
+      spill = temp;
+    }
+    size += len;
+  }
+
+  /**
+   * Inserts count * deqCapacity elements of a at index by splicing count FixedDeques into data, so that every
+   * element after index keeps its deque. The elements of the deque at index before it move into the first new deque
+   */
+  private void insertDeqs(int index, Object[] a, int count) {
+    int listIndex = listIndex(index);
+    int deqIndex = deqIndex(index);
+    int usedDeqs = listIndex(size - 1) + 1;
+
+    // take count empty deques from behind the used ones, they are refilled and moved in front of the split deque
+    List<FixedDeque<E>> emptyDeqs = data.subList(usedDeqs, usedDeqs + count);
+    ArrayList<FixedDeque<E>> newDeqs = reuseDeqs(emptyDeqs);
+    emptyDeqs.clear();
+
+    FixedDeque<E> split = data.get(listIndex);
+    FixedDeque<E> first = newDeqs.get(0);
+    split.copyTo(0, first.elementData, 0, deqIndex);
+    split.removeFront(deqIndex);
+    first.size = deqIndex;
+    int pos = 0;
+    for (FixedDeque<E> deque : newDeqs) {
+      int n = deqCapacity - deque.size;
+      deque.append(a, pos, n);
+      pos += n;
+    }
+    // the rest of a goes in front of what was after index in the split deque, which always fits
+    split.insertAll(0, a, pos, deqIndex, null);
+    data.addAll(listIndex, newDeqs);
+    restoreLastDeq();
+    size += count * deqCapacity;
+  }
+
+  /**
+   * Clears the given FixedDeques so they can be spliced in elsewhere, replacing the smaller final deque if it is
+   * among them with one of the full capacity
+   */
+  private ArrayList<FixedDeque<E>> reuseDeqs(List<FixedDeque<E>> deqs) {
+    ArrayList<FixedDeque<E>> reused = new ArrayList<>(deqs.size());
+    for (FixedDeque<E> deque : deqs) {
+      if (deque.capacity() == deqCapacity) {
+        deque.clear();
+        reused.add(deque);
+      } else {
+        reused.add(new FixedDeque<E>(deqCapacity));
+      }
+    }
+    return reused;
+  }
+
+  /**
+   * Puts a FixedDeque of lastDeqCapacity back at the end of data after deques were spliced in or out. The final
+   * elements always fit in it, and if the smaller deque was moved elsewhere its elements move to a full sized deque
+   */
+  private void restoreLastDeq() {
+    FixedDeque<E> last = data.get(listCapacity - 1);
+    if (lastDeqCapacity == 0 || last.capacity() == lastDeqCapacity)
+      return;
+    FixedDeque<E> newLast = new FixedDeque<>(lastDeqCapacity);
+    last.moveFrontTo(newLast, last.size);
+    for (int i = listCapacity - 2; i >= 0; i--) {
+      FixedDeque<E> smaller = data.get(i);
+      if (smaller.capacity() != deqCapacity) {
+        smaller.moveFrontTo(last, smaller.size);
+        data.set(i, last);
+        break;
+      }
+    }
+    data.set(listCapacity - 1, newLast);
   }
 
   /**
@@ -535,16 +1740,8 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
    */
   @Override
   public boolean removeAll(Collection<?> c) {
-    Iterator<?> itr = c.iterator();
-    boolean flag = false;
-    while (itr.hasNext()) {
-        Object o = itr.next();
-        if (contains(o)) {
-            remove(o);
-            flag = true;
-        }
-    }
-    return flag;
+    Objects.requireNonNull(c);
+    return batchRemove(c::contains, "removeAll");
   }
 
   /**
@@ -556,18 +1753,84 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
    */
   @Override
   public boolean retainAll(Collection<?> c) {
-    // FIXME optimize performance
-    HashSet<Object> hs = new HashSet<>();
-    for (int i = 0; i < size; i++) {
-        Object o = get(i);
-        if (!c.contains(o)) {
-            hs.add(o);
+    Objects.requireNonNull(c);
+    return batchRemove(e -> !c.contains(e), "retainAll");
+  }
+
+  /**
+   * Removes all of the elements of this IgushArray that satisfy the given predicate
+   *
+   * @param filter a predicate which returns true for elements to be removed
+   * @return true if any elements were removed
+   */
+  @Override
+  public boolean removeIf(Predicate<? super E> filter) {
+    Objects.requireNonNull(filter);
+    return batchRemove(filter, "removeIf");
+  }
+
+  /**
+   * Removes the elements matching filter in O(N). The filter is tested once per element and the results kept in a
+   * bitmap, so the IgushArray is left unchanged if it throws. The survivors are then moved forward in a single pass
+   * over the FixedDeques, each deque keeping its head, and the emptied slots at the end are cleared
+   */
+  @SuppressWarnings("unchecked")
+  private boolean batchRemove(Predicate<? super E> filter, String operation) {
+    IgushArrayEvents.BulkOperation event = new IgushArrayEvents.BulkOperation();
+    event.begin();
+    completeGrowth();
+    long[] removed = new long[(size + 63) >>> 6];
+    int removeCount = 0;
+    int firstRemoved = -1;
+    int index = 0;
+    if (adaptiveBlocks)
+      sampledReads += size;
+    for (int i = 0; index < size; i++) {
+      FixedDeque<E> deque = data.get(i);
+      for (int j = 0; j < deque.size; j++, index++) {
+        if (filter.test((E) deque.elementData[deque.physicalIndex(j)])) {
+          removed[index >>> 6] |= 1L << index;
+          if (removeCount++ == 0)
+            firstRemoved = index;
+        }
+      }
+    }
+    if (removeCount == 0)
+      return false;
+    modCount++;
+    if (metrics != null)
+      metrics.removes.add(removeCount);
+    closeFront();
+    // the deques before the first removed element are left as they are
+    own(data, listIndex(firstRemoved), listIndex(size - 1));
+
+    // the write position never passes the read position, so every slot written to has already been read
+    int targetIndex = listIndex(firstRemoved);
+    FixedDeque<E> target = data.get(targetIndex);
+    int targetPos = deqIndex(firstRemoved);
+    index = firstRemoved;
+    for (int i = targetIndex, j = targetPos; index < size; i++, j = 0) {
+      FixedDeque<E> deque = data.get(i);
+      for (; j < deque.size; j++, index++) {
+        if ((removed[index >>> 6] & (1L << index)) == 0) {
+          if (targetPos == target.capacity()) {
+            target = data.get(++targetIndex);
+            targetPos = 0;
+          }
+          target.elementData[target.physicalIndex(targetPos++)] = deque.elementData[deque.physicalIndex(j)];
         }
+      }
     }
 
-    boolean flag = removeAll(hs);
-
-    return flag;
+    int newSize = size - removeCount;
+    for (int i = 0, start = 0; start < size; i++, start += deqCapacity) {
+      FixedDeque<E> deque = data.get(i);
+      deque.removeRange(Math.max(0, Math.min(deque.size, newSize - start)), deque.size);
+    }
+    size = newSize;
+    endBulk(event, operation, removeCount);
+    shrinkIfSparse();
+    return true;
   }
 
   /**
@@ -590,19 +1853,98 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
   }
 
 
+  /**
+   * Removes the elements from fromIndex, inclusive, to toIndex, exclusive.
+   *
+   * Whole FixedDeques are spliced out for every deqCapacity elements removed, and the remaining
+   * k % deqCapacity elements are closed up by pulling the front of every following deque into the one before it.
+   * Removing k elements is O(k + N^1/2) array copies.
+   *
+   * @param fromIndex index of the first element to remove
+   * @param toIndex   index after the last element to remove
+   */
   @Override
   protected void removeRange(int fromIndex, int toIndex) {
-    HashSet<Object> hs = new HashSet<>();
-    for (int i = fromIndex; i < toIndex; i++) {
-      hs.add(get(i));
+    if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+      throw new IndexOutOfBoundsException("From Index: " + fromIndex + ", To Index: " + toIndex + ", Size: " + size);
+    modCount++;
+    if (metrics != null)
+      metrics.removes.add(toIndex - fromIndex);
+    IgushArrayEvents.BulkOperation event = new IgushArrayEvents.BulkOperation();
+    event.begin();
+    completeGrowth();
+    int padding = padFront();
+    fromIndex += padding;
+    toIndex += padding;
+    if (fromIndex < toIndex)
+      own(data, listIndex(fromIndex), listCapacity - 1);
+    int k = toIndex - fromIndex;
+    int fullDeqs = k / deqCapacity;
+    int rest = k - fullDeqs * deqCapacity;
+    if (fullDeqs > 0) {
+      removeDeqs(fromIndex, fullDeqs);
+    }
+    if (rest > 0) {
+      removeCarried(fromIndex, rest);
     }
-    removeAll(hs);
+    unpadFront(padding);
+    endBulk(event, "removeRange", k);
+    shrinkIfSparse();
+  }
+
+  /**
+   * Removes count * deqCapacity elements from index by splicing count FixedDeques out of data, so that every
+   * element after the removed ones keeps its deque. The elements left in the deque at the end of the range move
+   * into the deque at index
+   */
+  private void removeDeqs(int index, int count) {
+    int listIndex = listIndex(index);
+    int deqIndex = deqIndex(index);
+    if (deqIndex > 0) {
+      FixedDeque<E> first = data.get(listIndex);
+      FixedDeque<E> next = data.get(listIndex + count);
+      first.removeRange(deqIndex, first.size);
+      next.removeFront(deqIndex);
+      next.moveFrontTo(first, next.size);
+      listIndex++;
+    }
+    // the removed deques are cleared and put back behind the used ones
+    List<FixedDeque<E>> removedDeqs = data.subList(listIndex, listIndex + count);
+    ArrayList<FixedDeque<E>> emptyDeqs = reuseDeqs(removedDeqs);
+    removedDeqs.clear();
+    data.addAll(emptyDeqs);
+    restoreLastDeq();
+    size -= count * deqCapacity;
+  }
+
+  /**
+   * Removes len < deqCapacity elements from index. The front of each following FixedDeque is pulled into the
+   * space left at the end of the one before, which rotates a full deque by len
+   */
+  private void removeCarried(int index, int len) {
+    int listIndex = listIndex(index);
+    int deqIndex = deqIndex(index);
+    FixedDeque<E> deque = data.get(listIndex);
+    int inDeque = Math.min(len, deque.size - deqIndex);
+    deque.removeRange(deqIndex, deqIndex + inDeque);
+    if (inDeque < len) {
+      data.get(listIndex + 1).removeFront(len - inDeque);
+    }
+    for (int i = listIndex; i + 1 < listCapacity; i++) {
+      FixedDeque<E> next = data.get(i + 1);
+      if (next.size == 0)
+        break;
+      deque = data.get(i);
+      next.moveFrontTo(deque, Math.min(deque.capacity() - deque.size, next.size));
+    }
+    size -= len;
   }
 
   // Only used when we add/insert an element usually
-  private void shiftUp(int listIndex, E frontElement) {
-    while (listIndex < listCapacity) {
-      FixedDeque<E> deque = data.get(listIndex);
+  private void shiftUp(ArrayList<FixedDeque<E>> deqs, int listIndex, E frontElement) {
+    int first = listIndex;
+    while (listIndex < deqs.size()) {
+      FixedDeque<E> deque = deqs.get(listIndex);
 
       // We shiftUp the deque if they are full, otherwise we just add to the final non full deque and stop the
       // shifting process
@@ -614,19 +1956,24 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
       }
       listIndex += 1;
     }
+    if (metrics != null)
+      metrics.cascade(Math.min(listIndex + 1, deqs.size()) - first);
   }
 
-  private void shiftDown(int listIndex) {
+  // Only used when we remove an element, lastListIndex is the index of the last deque holding elements
+  private void shiftDown(ArrayList<FixedDeque<E>> deqs, int listIndex, int lastListIndex) {
     E endElement;
-    int currListIndex = (int) Math.ceil((double) size() / deqCapacity - 1); //FIXME this could be done better
+    int currListIndex = lastListIndex;
     if (currListIndex == listIndex - 1)
       return;
-    FixedDeque<E> deque = data.get(currListIndex);
+    if (metrics != null)
+      metrics.cascade(lastListIndex - listIndex + 2);
+    FixedDeque<E> deque = deqs.get(currListIndex);
     endElement = deque.remove(0);
     currListIndex -= 1;
 
     while (currListIndex >= listIndex) {
-      deque = data.get(currListIndex);
+      deque = deqs.get(currListIndex);
 
       // Move the first element of the previous deque to the end of the current deque
       endElement = deque.shiftDown(endElement);
@@ -634,51 +1981,113 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
       currListIndex -= 1;
     }
 
-    deque = data.get(currListIndex);
+    deque = deqs.get(currListIndex);
     deque.add(endElement);
   }
 
   @Override
   public ListIterator<E> listIterator() {
-    return new ListIteratorPrototype();
+    return new ListItr(0);
   }
 
   @Override
   public ListIterator<E> listIterator(int index) {
-    return new ListIteratorPrototype(index);
+    rangeCheckForAdd(index);
+    return new ListItr(index);
   }
 
-  // FIXME, look at how ArrayList implements this
-  // FIXME DOCUMENTATION
+  /**
+   * Creates a late-binding and fail-fast Spliterator over the elements of this IgushArray. It splits on FixedDeque
+   * boundaries, so each part covers whole deques where possible and is traversed a ring at a time
+   *
+   * @return a Spliterator over the elements of this IgushArray
+   */
+  @Override
+  public Spliterator<E> spliterator() {
+    return new DequeSpliterator(0, -1, 0);
+  }
 
   /**
-   * @param fromIndex
-   * @param toIndex
-   * @return
+   * Performs the given action for each element of the IgushArray, walking the ring of each FixedDeque directly
+   *
+   * @param action the action to be performed for each element
    */
   @Override
-  public List<E> subList(int fromIndex, int toIndex) {
-    int newSize = toIndex - fromIndex;
-    List<E> subArr = new IgushArray<E>(newSize);
+  public void forEach(Consumer<? super E> action) {
+    new ListItr(0).forEachRemaining(action);
+  }
 
-    ListIterator<E> itr = listIterator();
-    while (itr.hasNext()) {
-      subArr.add(itr.next());
-    }
-    return subArr;
+  /**
+   * Returns a view of the portion of this IgushArray between fromIndex, inclusive, and toIndex, exclusive. The view
+   * is created in constant time without copying anything. Its indices are mapped onto the FixedDeques of this
+   * IgushArray, so changes to either are visible in the other, and structural changes made through the view use the
+   * same O(N^1/2) paths as this IgushArray. Structural changes made to this IgushArray other than through the view
+   * cause the view to throw a ConcurrentModificationException
+   *
+   * @param fromIndex low endpoint (inclusive) of the subList
+   * @param toIndex   high endpoint (exclusive) of the subList
+   * @return a view of the specified range within this IgushArray
+   * @throws IndexOutOfBoundsException if fromIndex < 0 or toIndex > size
+   * @throws IllegalArgumentException  if fromIndex > toIndex
+   */
+  @Override
+  public List<E> subList(int fromIndex, int toIndex) {
+    subListRangeCheck(fromIndex, toIndex, size);
+    return new SubList(null, fromIndex, toIndex);
   }
 
-  //FIXME forEach method?
+  private static void subListRangeCheck(int fromIndex, int toIndex, int size) {
+    if (fromIndex < 0)
+      throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+    if (toIndex > size)
+      throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+    if (fromIndex > toIndex)
+      throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+  }
 
-  //FIXME sort method?
   /**
+   * Sorts this IgushArray according to the order induced by the specified Comparator, or the natural ordering if c
+   * is null. The elements are copied into one array a FixedDeque at a time, sorted with Arrays.sort, and copied back
+   * into the deques with each head reset to 0.
    *
    * @param c the comparator to use to sort the IgushArray
-
+   */
+  @Override
   public void sort(Comparator<? super E> c) {
-  Collections.sort(this, c);
+    sort(c, false);
   }
+
+  /**
+   * Sorts this IgushArray like {@link #sort(Comparator)}, but with Arrays.parallelSort, which sorts large
+   * IgushArrays on several threads of the common ForkJoinPool.
+   *
+   * @param c the comparator to use to sort the IgushArray
    */
+  public void parallelSort(Comparator<? super E> c) {
+    sort(c, true);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void sort(Comparator<? super E> c, boolean parallel) {
+    completeGrowth();
+    final int expectedModCount = modCount;
+    E[] a = (E[]) new Object[size];
+    copyTo(0, a, 0, size);
+    if (parallel) {
+      Arrays.parallelSort(a, c);
+    } else {
+      Arrays.sort(a, c);
+    }
+    if (modCount != expectedModCount)
+      throw new ConcurrentModificationException();
+    int pos = 0;
+    for (int i = 0; pos < size; i++) {
+      FixedDeque<E> deque = owned(data, i);
+      deque.load(a, pos, deque.size);
+      pos += deque.size;
+    }
+    modCount++;
+  }
 
   /**
    * Returns the string representation of the contents of the IgushArray
@@ -701,52 +2110,498 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
     return sb.append(']').toString();
   }
 
-  private class ListIteratorPrototype implements ListIterator<E> {
-    private int cursor;
-    private int lastRet = -1; // index of last returned element;
+  /**
+   * The counters kept while metrics are enabled, see {@link #stats()}
+   */
+  private static final class Metrics {
+    final LongAdder inserts = new LongAdder();
+    final LongAdder removes = new LongAdder();
+    final LongAdder cascades = new LongAdder();
+    final LongAdder cascadeDeques = new LongAdder(); // FixedDeques changed by all cascades
+    final LongAdder resizes = new LongAdder();
+    final LongAdder resizeNanos = new LongAdder();
+    final LongAdder elementsCopied = new LongAdder();
+
+    void cascade(int deques) {
+      cascades.increment();
+      cascadeDeques.add(deques);
+    }
+  }
 
-    ListIteratorPrototype() {
-      cursor = 0; // cursor is right before the first element
+  /**
+   * An immutable view of the elements of an IgushArray, see {@link #snapshot()}. The FixedDeques it refers to are
+   * shared, so the IgushArray never changes them again
+   */
+  private static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+    private final ArrayList<FixedDeque<E>> deqs;
+    private final int deqCapacity;
+    private final int front;
+    private final int size;
+
+    Snapshot(ArrayList<FixedDeque<E>> deqs, int deqCapacity, int front, int size) {
+      this.deqs = deqs;
+      this.deqCapacity = deqCapacity;
+      this.front = front;
+      this.size = size;
     }
 
-    ListIteratorPrototype(int index) {
-      cursor = index;
+    @Override
+    public E get(int index) {
+      if (index < 0 || index >= size)
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      int pos = index + front;
+      return pos < deqCapacity ? deqs.get(0).get(index) : deqs.get(pos / deqCapacity).get(pos % deqCapacity);
     }
 
     @Override
-    public boolean hasNext() {
-      if (cursor < size()) {
-        return true;
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Object[] toArray() {
+      Object[] a = new Object[size];
+      int pos = 0;
+      for (FixedDeque<E> deque : deqs) {
+        deque.copyTo(0, a, pos, deque.size);
+        pos += deque.size;
       }
-      return false;
+      return a;
+    }
+  }
+
+  /**
+   * A view of the elements from offset to offset + size of this IgushArray, see {@link #subList(int, int)}. A view
+   * of a SubList keeps its parent, so that the sizes of all enclosing views follow structural changes
+   */
+  private class SubList extends AbstractList<E> implements RandomAccess {
+    private final SubList parent;
+    private final int offset;
+    private int size;
+
+    SubList(SubList parent, int fromIndex, int toIndex) {
+      this.parent = parent;
+      this.offset = parent == null ? fromIndex : parent.offset + fromIndex;
+      this.size = toIndex - fromIndex;
+      this.modCount = IgushArray.this.modCount;
     }
 
     @Override
-    public E next() {
-      if (hasNext()) {
-        lastRet = cursor;
-        cursor++;
-        return get(lastRet);
+    public E get(int index) {
+      rangeCheck(index);
+      checkForComodification();
+      return IgushArray.this.get(offset + index);
+    }
+
+    @Override
+    public E set(int index, E element) {
+      rangeCheck(index);
+      checkForComodification();
+      return IgushArray.this.set(offset + index, element);
+    }
+
+    @Override
+    public int size() {
+      checkForComodification();
+      return size;
+    }
+
+    @Override
+    public void add(int index, E element) {
+      rangeCheckForAdd(index);
+      checkForComodification();
+      IgushArray.this.add(offset + index, element);
+      updateSizeAndModCount(1);
+    }
+
+    @Override
+    public E remove(int index) {
+      rangeCheck(index);
+      checkForComodification();
+      E result = IgushArray.this.remove(offset + index);
+      updateSizeAndModCount(-1);
+      return result;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+      return addAll(size, c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+      rangeCheckForAdd(index);
+      checkForComodification();
+      int oldSize = IgushArray.this.size;
+      IgushArray.this.addAll(offset + index, c);
+      int added = IgushArray.this.size - oldSize;
+      if (added == 0)
+        return false;
+      updateSizeAndModCount(added);
+      return true;
+    }
+
+    /**
+     * Removes the elements from fromIndex to toIndex with a single range removal in the IgushArray, which is also
+     * how clear() empties the view
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+      checkForComodification();
+      IgushArray.this.removeRange(offset + fromIndex, offset + toIndex);
+      updateSizeAndModCount(fromIndex - toIndex);
+    }
+
+    @Override
+    public Object[] toArray() {
+      checkForComodification();
+      Object[] a = new Object[size];
+      copyTo(offset, a, 0, size);
+      return a;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+      checkForComodification();
+      if (a.length < size)
+        a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+      copyTo(offset, a, 0, size);
+      if (a.length > size)
+        a[size] = null;
+      return a;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return listIterator(0);
+    }
+
+    /**
+     * Returns a ListIterator over the view, backed by a ListIterator of the IgushArray so that it reads the rings of
+     * the FixedDeques directly
+     */
+    @Override
+    public ListIterator<E> listIterator(int index) {
+      checkForComodification();
+      rangeCheckForAdd(index);
+      return new ListIterator<E>() {
+        private final ListItr itr = new ListItr(offset + index);
+
+        @Override
+        public boolean hasNext() {
+          return itr.nextIndex() < offset + size;
+        }
+
+        @Override
+        public E next() {
+          if (!hasNext())
+            throw new NoSuchElementException();
+          return itr.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+          return itr.previousIndex() >= offset;
+        }
+
+        @Override
+        public E previous() {
+          if (!hasPrevious())
+            throw new NoSuchElementException();
+          return itr.previous();
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+          itr.forEachRemaining(action, offset + size);
+        }
+
+        @Override
+        public int nextIndex() {
+          return itr.nextIndex() - offset;
+        }
+
+        @Override
+        public int previousIndex() {
+          return itr.previousIndex() - offset;
+        }
+
+        @Override
+        public void remove() {
+          itr.remove();
+          updateSizeAndModCount(-1);
+        }
+
+        @Override
+        public void set(E e) {
+          itr.set(e);
+        }
+
+        @Override
+        public void add(E e) {
+          itr.add(e);
+          updateSizeAndModCount(1);
+        }
+      };
+    }
+
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+      subListRangeCheck(fromIndex, toIndex, size);
+      return new SubList(this, fromIndex, toIndex);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+      checkForComodification();
+      return new DequeSpliterator(offset, offset + size, modCount);
+    }
+
+    private void rangeCheck(int index) {
+      if (index < 0 || index >= size)
+        throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private void rangeCheckForAdd(int index) {
+      if (index < 0 || index > size)
+        throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+    }
+
+    private String outOfBoundsMsg(int index) {
+      return "Index: " + index + ", Size: " + size;
+    }
+
+    private void checkForComodification() {
+      if (IgushArray.this.modCount != modCount)
+        throw new ConcurrentModificationException();
+    }
+
+    private void updateSizeAndModCount(int sizeChange) {
+      SubList subList = this;
+      do {
+        subList.size += sizeChange;
+        subList.modCount = IgushArray.this.modCount;
+        subList = subList.parent;
+      } while (subList != null);
+    }
+  }
+
+  /**
+   * A Spliterator over the elements from index to fence that splits between FixedDeques, see {@link #spliterator()}
+   */
+  private class DequeSpliterator implements Spliterator<E> {
+    private int index; // current index, modified on advance/split
+    private int fence; // -1 until used; then one past last index
+    private int expectedModCount; // initialized when fence set
+
+    DequeSpliterator(int origin, int fence, int expectedModCount) {
+      this.index = origin;
+      this.fence = fence;
+      this.expectedModCount = expectedModCount;
+    }
+
+    private int getFence() {
+      int hi;
+      if ((hi = fence) < 0) {
+        expectedModCount = modCount;
+        hi = fence = size;
       }
-      throw new NoSuchElementException();
+      return hi;
     }
 
+    /**
+     * Splits off the first half, moving the split to the start of the FixedDeque holding the midpoint. If that
+     * deque also holds the start of the range, the split moves to its end instead, and the midpoint is used as is
+     * only if the whole range is inside one deque
+     */
     @Override
-    public boolean hasPrevious() {
-      if (cursor > 0) {
+    public Spliterator<E> trySplit() {
+      int hi = getFence();
+      int lo = index;
+      int mid = (lo + hi) >>> 1;
+      if (lo >= mid)
+        return null;
+      int start = dequeStart(mid);
+      if (start > lo) {
+        mid = start;
+      } else if (start + dequeOf(mid).size < hi) {
+        mid = start + dequeOf(mid).size;
+      }
+      return new DequeSpliterator(lo, index = mid, expectedModCount);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+      Objects.requireNonNull(action);
+      int hi = getFence();
+      int i = index;
+      if (i < hi) {
+        index = i + 1;
+        if (adaptiveBlocks)
+          sampledReads++;
+        action.accept(get(i));
+        if (modCount != expectedModCount)
+          throw new ConcurrentModificationException();
         return true;
       }
       return false;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
+    public void forEachRemaining(Consumer<? super E> action) {
+      Objects.requireNonNull(action);
+      int hi = getFence();
+      int i = index;
+      index = hi;
+      if (adaptiveBlocks)
+        sampledReads += hi - i;
+      while (i < hi) {
+        FixedDeque<E> deque = dequeOf(i);
+        int start = dequeStart(i);
+        int end = Math.min(hi, start + deque.size);
+        if (end <= i)
+          break; // the IgushArray shrank, which is reported below
+        Object[] es = deque.elementData;
+        int p = deque.physicalIndex(i - start);
+        int copies = dequeCopies;
+        // if the action sets an element of a shared deque, the rest are read from its copy
+        while (i < end && copies == dequeCopies) {
+          action.accept((E) es[p]);
+          i++;
+          if (++p == es.length)
+            p = 0;
+        }
+      }
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public long estimateSize() {
+      return getFence() - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+  }
+
+  /**
+   * A ListIterator that reads the ring of the current FixedDeque directly, finding the next FixedDeque only when it
+   * steps past either end of the current one. It is fail-fast: any change to the IgushArray made other than through
+   * the iterator itself throws a ConcurrentModificationException on its next use
+   */
+  private class ListItr implements ListIterator<E> {
+    private int cursor; // index of the element returned by next
+    private int lastRet = -1; // index of last returned element;
+    private int expectedModCount = modCount;
+
+    // the FixedDeque holding the elements most recently returned
+    private Object[] es;
+    private int head;
+    private int dequeStart; // index in the IgushArray of the first element of the deque
+    private int dequeSize; // 0 to find the deque again on the next move
+    private int expectedCopies; // dequeCopies when the deque was found, it is found again if a shared one is copied
+
+    ListItr(int index) {
+      cursor = index;
+    }
+
+    /**
+     * Makes the FixedDeque holding index the current one
+     */
+    private void seek(int index) {
+      FixedDeque<E> deque = dequeOf(index);
+      dequeStart = dequeStart(index);
+      es = deque.elementData;
+      head = deque.head;
+      dequeSize = deque.size;
+      expectedCopies = dequeCopies;
+    }
+
+    // position in es of the element at index, which is in the current deque
+    private int physicalIndex(int index) {
+      int i = head + index - dequeStart;
+      return i >= es.length ? i - es.length : i;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor < size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+      checkForComodification();
+      int i = cursor;
+      if (i >= size)
+        throw new NoSuchElementException();
+      if (i < dequeStart || i - dequeStart >= dequeSize || expectedCopies != dequeCopies)
+        seek(i);
+      if (adaptiveBlocks)
+        sampledReads++;
+      cursor = i + 1;
+      lastRet = i;
+      return (E) es[physicalIndex(i)];
+    }
+
+    @Override
+    public boolean hasPrevious() {
+      return cursor > 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
     public E previous() {
-      if (hasPrevious()) {
-        lastRet = cursor;
-        cursor--;
-        return get(cursor);
+      checkForComodification();
+      int i = cursor - 1;
+      if (i < 0)
+        throw new NoSuchElementException();
+      if (i < dequeStart || i - dequeStart >= dequeSize || expectedCopies != dequeCopies)
+        seek(i);
+      if (adaptiveBlocks)
+        sampledReads++;
+      cursor = i;
+      lastRet = i;
+      return (E) es[physicalIndex(i)];
+    }
+
+    /**
+     * Passes every remaining element to action, a FixedDeque at a time walking its ring directly
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+      forEachRemaining(action, size);
+    }
+
+    /**
+     * Passes the remaining elements before index hi to action, see {@link #forEachRemaining(Consumer)}
+     */
+    @SuppressWarnings("unchecked")
+    void forEachRemaining(Consumer<? super E> action, int hi) {
+      Objects.requireNonNull(action);
+      int i = cursor;
+      while (i < hi && i < size && modCount == expectedModCount) {
+        seek(i);
+        int p = physicalIndex(i);
+        int end = Math.min(hi, dequeStart + dequeSize);
+        // if the action sets an element of a shared deque, the rest are read from its copy
+        while (i < end && expectedCopies == dequeCopies) {
+          action.accept((E) es[p]);
+          i++;
+          if (++p == es.length)
+            p = 0;
+        }
       }
-      throw new NoSuchElementException();
+      if (adaptiveBlocks)
+        sampledReads += i - cursor;
+      cursor = i;
+      lastRet = i - 1;
+      checkForComodification();
     }
 
     @Override
@@ -761,19 +2616,37 @@ public class IgushArray<E> extends AbstractList<E> implements List<E>, RandomAcc
 
     @Override
     public void remove() {
+      if (lastRet < 0)
+        throw new IllegalStateException();
+      checkForComodification();
       IgushArray.this.remove(lastRet);
+      cursor = lastRet;
       lastRet = -1;
+      expectedModCount = modCount;
+      dequeSize = 0;
     }
 
     @Override
     public void set(E e) {
+      if (lastRet < 0)
+        throw new IllegalStateException();
+      checkForComodification();
       IgushArray.this.set(lastRet, e);
     }
 
     @Override
     public void add(E e) {
+      checkForComodification();
       IgushArray.this.add(cursor, e);
+      cursor++;
       lastRet = -1;
+      expectedModCount = modCount;
+      dequeSize = 0;
+    }
+
+    private void checkForComodification() {
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
     }
   }
 }
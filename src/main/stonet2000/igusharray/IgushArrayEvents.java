@@ -0,0 +1,96 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import jdk.jfr.*;
+
+/**
+ * The Java Flight Recorder events of IgushArray, so that resizes and slow bulk operations can be lined up with GC
+ * pauses and request latency in the same recording. Creating an event is all they cost while JFR is not recording,
+ * and their fields are only filled in when they are going to be committed.
+ */
+final class IgushArrayEvents {
+
+  private IgushArrayEvents() {
+  }
+
+  /**
+   * A change of the capacity or of the FixedDeque capacity of an IgushArray, timed from start to end
+   */
+  @Name("stonet2000.igusharray.Resize")
+  @Label("IgushArray Resize")
+  @Category({"IgushArray"})
+  @Description("Growth, trimming or repacking of an IgushArray")
+  static final class Resize extends Event {
+    @Label("Cause")
+    @Description("grow, trim or retune")
+    String cause;
+
+    @Label("Old Capacity")
+    int oldCapacity;
+
+    @Label("New Capacity")
+    int newCapacity;
+
+    @Label("Old Block Size")
+    @Description("Capacity of each FixedDeque before the resize")
+    int oldDequeCapacity;
+
+    @Label("New Block Size")
+    @Description("Capacity of each FixedDeque after the resize")
+    int newDequeCapacity;
+
+    @Label("Elements Moved")
+    @Description("Elements copied into other FixedDeques by the resize itself, not by incremental growth after it")
+    long elementsMoved;
+
+    @Label("Incremental")
+    @Description("Whether the elements are moved into the new FixedDeques by the operations that follow")
+    boolean incremental;
+
+    transient long startNanos; // System.nanoTime() at the start, only taken when metrics are enabled
+  }
+
+  /**
+   * A bulk operation on an IgushArray that took longer than the threshold, 10 ms unless configured otherwise
+   */
+  @Name("stonet2000.igusharray.BulkOperation")
+  @Label("IgushArray Bulk Operation")
+  @Category({"IgushArray"})
+  @Description("An addAll, removeRange, removeIf, removeAll, retainAll or clear of an IgushArray")
+  @Threshold("10 ms")
+  static final class BulkOperation extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Elements")
+    @Description("Elements inserted or removed")
+    int elements;
+
+    @Label("Size")
+    @Description("Size of the IgushArray after the operation")
+    int size;
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * A standard MBean exposing the {@link IgushArray#stats()} of an IgushArray over JMX. Every attribute is read from a
+ * new snapshot, and as the IgushArray is not thread safe the layout attributes may be slightly out of date while it
+ * changes. The operation counts are only kept while metrics are enabled on the IgushArray.
+ */
+public class IgushArrayMonitor implements IgushArrayMonitorMBean {
+
+  private final IgushArray<?> list;
+
+  public IgushArrayMonitor(IgushArray<?> list) {
+    this.list = list;
+  }
+
+  /**
+   * Registers a monitor of the IgushArray with the platform MBean server, enabling metrics on it if they are off
+   *
+   * @param list the IgushArray to monitor
+   * @param name the object name to register it under, such as "stonet2000.igusharray:type=IgushArray,name=orders"
+   * @return the object name it was registered under
+   * @throws JMException if the name is malformed or already registered
+   */
+  public static ObjectName register(IgushArray<?> list, String name) throws JMException {
+    ObjectName objectName = new ObjectName(name);
+    list.setMetricsEnabled(true);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(new IgushArrayMonitor(list), objectName);
+    return objectName;
+  }
+
+  @Override
+  public int getSize() {
+    return list.stats().getSize();
+  }
+
+  @Override
+  public int getCapacity() {
+    return list.stats().getCapacity();
+  }
+
+  @Override
+  public int getDequeCapacity() {
+    return list.stats().getDequeCapacity();
+  }
+
+  @Override
+  public int getDequeCount() {
+    return list.stats().getDequeCount();
+  }
+
+  @Override
+  public double getFillRatio() {
+    return list.stats().getFillRatio();
+  }
+
+  @Override
+  public double getDequeFillRatio() {
+    return list.stats().getDequeFillRatio();
+  }
+
+  @Override
+  public boolean isMetricsEnabled() {
+    return list.stats().isMetricsEnabled();
+  }
+
+  @Override
+  public long getInserts() {
+    return list.stats().getInserts();
+  }
+
+  @Override
+  public long getRemoves() {
+    return list.stats().getRemoves();
+  }
+
+  @Override
+  public long getCascades() {
+    return list.stats().getCascades();
+  }
+
+  @Override
+  public long getCascadeDeques() {
+    return list.stats().getCascadeDeques();
+  }
+
+  @Override
+  public double getMeanCascadeLength() {
+    return list.stats().getMeanCascadeLength();
+  }
+
+  @Override
+  public long getResizes() {
+    return list.stats().getResizes();
+  }
+
+  @Override
+  public long getResizeNanos() {
+    return list.stats().getResizeNanos();
+  }
+
+  @Override
+  public long getElementsCopied() {
+    return list.stats().getElementsCopied();
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+/**
+ * A snapshot of the layout of an IgushArray and of the operations counted on it, returned by
+ * {@link IgushArray#stats()}. The operation counts are 0 unless metrics were enabled with
+ * {@link IgushArray#setMetricsEnabled(boolean)}, and count from when they were last enabled.
+ */
+public final class IgushArrayStats {
+  private final int size;
+  private final int capacity;
+  private final int dequeCapacity;
+  private final int dequeCount; // FixedDeques holding elements
+  private final boolean metricsEnabled;
+  private final long inserts;
+  private final long removes;
+  private final long cascades;
+  private final long cascadeDeques;
+  private final long resizes;
+  private final long resizeNanos;
+  private final long elementsCopied;
+
+  IgushArrayStats(int size, int capacity, int dequeCapacity, int dequeCount, boolean metricsEnabled, long inserts,
+                  long removes, long cascades, long cascadeDeques, long resizes, long resizeNanos,
+                  long elementsCopied) {
+    this.size = size;
+    this.capacity = capacity;
+    this.dequeCapacity = dequeCapacity;
+    this.dequeCount = dequeCount;
+    this.metricsEnabled = metricsEnabled;
+    this.inserts = inserts;
+    this.removes = removes;
+    this.cascades = cascades;
+    this.cascadeDeques = cascadeDeques;
+    this.resizes = resizes;
+    this.resizeNanos = resizeNanos;
+    this.elementsCopied = elementsCopied;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the capacity of each FixedDeque, the final one may be smaller
+   */
+  public int getDequeCapacity() {
+    return dequeCapacity;
+  }
+
+  /**
+   * Returns the number of FixedDeques holding elements
+   */
+  public int getDequeCount() {
+    return dequeCount;
+  }
+
+  /**
+   * Returns the fraction of the capacity in use
+   */
+  public double getFillRatio() {
+    return capacity == 0 ? 0 : (double) size / capacity;
+  }
+
+  /**
+   * Returns the fraction of the slots of the FixedDeques holding elements that are in use, below 1 when there are
+   * free slots at the front of the first one or at the end of the last one
+   */
+  public double getDequeFillRatio() {
+    return dequeCount == 0 ? 0 : (double) size / ((long) dequeCount * dequeCapacity);
+  }
+
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  /**
+   * Returns the number of elements inserted, singly or in bulk
+   */
+  public long getInserts() {
+    return inserts;
+  }
+
+  /**
+   * Returns the number of elements removed, singly or in bulk
+   */
+  public long getRemoves() {
+    return removes;
+  }
+
+  /**
+   * Returns the number of times an insert or remove carried an element across the following FixedDeques
+   */
+  public long getCascades() {
+    return cascades;
+  }
+
+  /**
+   * Returns the number of FixedDeques changed by all cascades
+   */
+  public long getCascadeDeques() {
+    return cascadeDeques;
+  }
+
+  /**
+   * Returns the mean number of FixedDeques changed by a cascade
+   */
+  public double getMeanCascadeLength() {
+    return cascades == 0 ? 0 : (double) cascadeDeques / cascades;
+  }
+
+  /**
+   * Returns the number of times the capacity or the FixedDeque capacity changed
+   */
+  public long getResizes() {
+    return resizes;
+  }
+
+  /**
+   * Returns the time spent resizing, in nanoseconds. Elements moved later by incremental growth are not included
+   */
+  public long getResizeNanos() {
+    return resizeNanos;
+  }
+
+  /**
+   * Returns the number of elements copied into other FixedDeques by resizing, including incremental growth
+   */
+  public long getElementsCopied() {
+    return elementsCopied;
+  }
+
+  @Override
+  public String toString() {
+    return "IgushArrayStats{size=" + size + ", capacity=" + capacity + ", dequeCapacity=" + dequeCapacity
+        + ", dequeCount=" + dequeCount + ", metricsEnabled=" + metricsEnabled + ", inserts=" + inserts
+        + ", removes=" + removes + ", cascades=" + cascades + ", cascadeDeques=" + cascadeDeques
+        + ", resizes=" + resizes + ", resizeNanos=" + resizeNanos + ", elementsCopied=" + elementsCopied + "}";
+  }
+}
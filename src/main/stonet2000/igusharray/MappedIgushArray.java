@@ -0,0 +1,258 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An OffHeapIgushArray whose rings, ring heads and size live in a memory-mapped file, so that a large list can be
+ * reopened without rebuilding it. Opening maps the file and creates one buffer per ring, and the operating system
+ * loads pages lazily as they are accessed.
+ *
+ * Inserts and removes update the mapped rings and heads in place. Changes reach the file as the operating system
+ * writes back dirty pages, and {@link #force()} writes them out immediately. Growing or trimming the capacity writes
+ * a new file next to the old one and atomically replaces it.
+ *
+ * The file starts with a header of 64 bytes, all little endian:
+ * <pre>
+ *   0  int  magic, "IGSH"
+ *   4  int  format version
+ *   8  int  record size in bytes
+ *   12 int  ring capacity (deqCapacity)
+ *   16 int  number of rings
+ *   20 int  size
+ *   24 long byte offset of the first ring
+ * </pre>
+ * followed by the head of every ring as an int, and then the rings themselves, page aligned.
+ *
+ * @param <E> the type of elements in this list
+ * @author Stone Tao
+ */
+public class MappedIgushArray<E> extends OffHeapIgushArray<E> {
+
+  static final int MAGIC = 0x48534749; // "IGSH" read as a little endian int
+  static final int VERSION = 1;
+  private static final int RECORD_SIZE_OFFSET = 8;
+  private static final int DEQ_CAPACITY_OFFSET = 12;
+  private static final int LIST_CAPACITY_OFFSET = 16;
+  private static final int SIZE_OFFSET = 20;
+  private static final int DATA_OFFSET_OFFSET = 24;
+  private static final int HEADS_OFFSET = 64;
+  private static final int PAGE_SIZE = 4096;
+  private static final long MAX_MAPPING = 1L << 30; // largest region mapped at once, a whole number of rings
+
+  private final Path path;
+  private FileChannel channel;
+  private MappedByteBuffer header; // the header and the ring heads
+  private MappedByteBuffer[] mappings; // the rings, a whole number of them per mapping
+
+  private MappedIgushArray(Path path, RecordCodec<E> codec) {
+    super(codec);
+    this.path = path;
+  }
+
+  /**
+   * Creates a new MappedIgushArray in the given file, replacing its contents if it exists
+   *
+   * @param path            the file to store the list in
+   * @param codec           the codec converting elements to and from records
+   * @param initialCapacity the initial capacity in records
+   * @return the new, empty, list
+   * @throws IOException if the file cannot be created or mapped
+   */
+  public static <E> MappedIgushArray<E> create(Path path, RecordCodec<E> codec, int initialCapacity)
+      throws IOException {
+    if (initialCapacity <= 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    MappedIgushArray<E> list = new MappedIgushArray<>(path, codec);
+    int deqCapacity = optimalDeqCapacity(initialCapacity);
+    list.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    writeHeader(list.channel, list.recordSize, deqCapacity, (initialCapacity + deqCapacity - 1) / deqCapacity);
+    list.map();
+    return list;
+  }
+
+  /**
+   * Opens a MappedIgushArray previously created in the given file
+   *
+   * @param path  the file the list is stored in
+   * @param codec the codec converting elements to and from records, with the record size the file was created with
+   * @return the list stored in the file
+   * @throws IOException if the file cannot be mapped, or is not a MappedIgushArray file for this record size
+   */
+  public static <E> MappedIgushArray<E> open(Path path, RecordCodec<E> codec) throws IOException {
+    MappedIgushArray<E> list = new MappedIgushArray<>(path, codec);
+    list.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      list.map();
+    } catch (IOException | RuntimeException e) {
+      list.channel.close();
+      throw e;
+    }
+    return list;
+  }
+
+  /**
+   * Writes the header of an empty list with the given layout at the start of the channel's file
+   */
+  private static void writeHeader(FileChannel channel, int recordSize, int deqCapacity, int listCapacity)
+      throws IOException {
+    long dataOffset = (HEADS_OFFSET + 4L * listCapacity + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    ByteBuffer header = ByteBuffer.allocate(HEADS_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(0, MAGIC);
+    header.putInt(4, VERSION);
+    header.putInt(RECORD_SIZE_OFFSET, recordSize);
+    header.putInt(DEQ_CAPACITY_OFFSET, deqCapacity);
+    header.putInt(LIST_CAPACITY_OFFSET, listCapacity);
+    header.putInt(SIZE_OFFSET, 0);
+    header.putLong(DATA_OFFSET_OFFSET, dataOffset);
+    channel.write(header, 0);
+    // the heads of a new list are all 0, extending the file fills them and the rings with zeros
+    channel.write(ByteBuffer.allocate(1), dataOffset + (long) listCapacity * deqCapacity * recordSize - 1);
+  }
+
+  /**
+   * Maps the header and rings of the channel's file and points this list at them
+   */
+  private void map() throws IOException {
+    ByteBuffer fixed = ByteBuffer.allocate(HEADS_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+    if (channel.read(fixed, 0) < HEADS_OFFSET || fixed.getInt(0) != MAGIC)
+      throw new IOException(path + " is not a MappedIgushArray file");
+    if (fixed.getInt(4) != VERSION)
+      throw new IOException("Unsupported MappedIgushArray version " + fixed.getInt(4) + " in " + path);
+    if (fixed.getInt(RECORD_SIZE_OFFSET) != recordSize)
+      throw new IOException(path + " holds records of " + fixed.getInt(RECORD_SIZE_OFFSET) + " bytes, not "
+          + recordSize);
+    int deqCapacity = fixed.getInt(DEQ_CAPACITY_OFFSET);
+    int listCapacity = fixed.getInt(LIST_CAPACITY_OFFSET);
+    long dataOffset = fixed.getLong(DATA_OFFSET_OFFSET);
+    int blockBytes = deqCapacity * recordSize;
+
+    header = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataOffset);
+    header.order(ByteOrder.LITTLE_ENDIAN);
+    int blocksPerMapping = (int) Math.max(1, MAX_MAPPING / blockBytes);
+    mappings = new MappedByteBuffer[(listCapacity + blocksPerMapping - 1) / blocksPerMapping];
+    ByteBuffer[] blocks = new ByteBuffer[listCapacity];
+    for (int i = 0; i < mappings.length; i++) {
+      int first = i * blocksPerMapping;
+      int count = Math.min(blocksPerMapping, listCapacity - first);
+      mappings[i] = channel.map(FileChannel.MapMode.READ_WRITE, dataOffset + (long) first * blockBytes,
+          (long) count * blockBytes);
+      for (int j = 0; j < count; j++) {
+        blocks[first + j] = mappings[i].slice(j * blockBytes, blockBytes).order(ByteOrder.LITTLE_ENDIAN);
+      }
+    }
+
+    this.blocks = blocks;
+    this.heads = header.slice(HEADS_OFFSET, listCapacity * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    this.size = header.getInt(SIZE_OFFSET);
+    setDeqCapacity(deqCapacity);
+  }
+
+  /**
+   * Writes the records into a new file with the optimal ring capacity for minCapacity, then atomically replaces
+   * the file of this list with it and maps it
+   */
+  @Override
+  void layout(int minCapacity) {
+    int newDeqCapacity = optimalDeqCapacity(minCapacity);
+    int listCapacity = (int) (((long) minCapacity + newDeqCapacity - 1) / newDeqCapacity);
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      MappedIgushArray<E> copy = new MappedIgushArray<>(temp, codec);
+      copy.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try {
+        writeHeader(copy.channel, recordSize, newDeqCapacity, listCapacity);
+        copy.map();
+        copyRecords(copy.blocks, newDeqCapacity);
+        copy.setSize(size);
+        copy.force();
+      } finally {
+        copy.close();
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      channel.close();
+      channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      map();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not resize " + path, e);
+    }
+  }
+
+  @Override
+  void setSize(int newSize) {
+    size = newSize;
+    header.putInt(SIZE_OFFSET, newSize);
+  }
+
+  /**
+   * Writes all changes made to this list to the file
+   */
+  public void force() {
+    if (isClosed())
+      throw new IllegalStateException("MappedIgushArray is closed");
+    header.force();
+    for (MappedByteBuffer mapping : mappings) {
+      mapping.force();
+    }
+  }
+
+  /**
+   * Returns the file this list is stored in
+   */
+  public Path path() {
+    return path;
+  }
+
+  /**
+   * Closes the file of this list. Changes not yet written back by the operating system are written once the
+   * mappings are garbage collected; call {@link #force()} first to write them immediately
+   */
+  @Override
+  public void close() {
+    if (isClosed())
+      return;
+    super.close();
+    header = null;
+    mappings = null;
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,436 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An IgushArray of fixed-width records stored outside of the Java heap, so that very large lists do not add to
+ * garbage collection work.
+ *
+ * Each ring is a direct ByteBuffer holding deqCapacity records, encoded and decoded by a RecordCodec. Like
+ * IgushArray, every ring before the one containing index size is full, and inserting or removing in the middle
+ * moves records inside one ring and then rotates the head of each following ring, so insertion and removal are
+ * O(N^1/2) and access is O(1). Records are moved between rings as raw bytes, without creating Java objects.
+ *
+ * The memory is held until {@link #close()} is called, after which the list can no longer be used. Direct buffers
+ * are returned to the operating system once they are garbage collected, which close() allows by dropping every
+ * reference to them.
+ *
+ * @param <E> the type of elements in this list
+ * @author Stone Tao
+ */
+public class OffHeapIgushArray<E> extends AbstractList<E> implements RandomAccess, AutoCloseable {
+
+  final RecordCodec<E> codec;
+  final int recordSize; // bytes per record
+  ByteBuffer[] blocks; // block i holds ring i, deqCapacity records
+  IntBuffer heads; // slot of the first record of each ring inside its block
+  int size; // the current size of OffHeapIgushArray, not the same as capacity
+  int deqCapacity; // records per ring, a power of two
+  int deqShift; // log2 of deqCapacity
+  int deqMask; // deqCapacity - 1
+  private boolean closed;
+  private ByteBuffer carry; // scratch record carried from one ring to the next
+  private ByteBuffer swap; // scratch record swapped with carry
+
+  /**
+   * Constructs an empty OffHeapIgushArray with the specified initial capacity, rounded up to a multiple of the ring
+   * capacity
+   *
+   * @param codec           the codec converting elements to and from records
+   * @param initialCapacity the initial capacity in records
+   * @throws IllegalArgumentException if the specified initial capacity is not positive
+   */
+  public OffHeapIgushArray(RecordCodec<E> codec, int initialCapacity) {
+    this(codec);
+    if (initialCapacity <= 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    layout(initialCapacity);
+  }
+
+  /**
+   * Constructs an OffHeapIgushArray without any blocks, for subclasses that set up their own
+   */
+  OffHeapIgushArray(RecordCodec<E> codec) {
+    this.codec = codec;
+    this.recordSize = codec.recordSize();
+    if (recordSize <= 0)
+      throw new IllegalArgumentException("Illegal record size: " + recordSize);
+    carry = ByteBuffer.allocate(recordSize);
+    swap = ByteBuffer.allocate(recordSize);
+  }
+
+  /**
+   * Returns the ring capacity used for the given total capacity, the power of two nearest to its square root
+   */
+  static int optimalDeqCapacity(int capacity) {
+    int optimal = Math.max(1, (int) Math.pow(capacity, 0.5));
+    int lower = Integer.highestOneBit(optimal);
+    return optimal - lower <= (lower << 1) - optimal ? lower : lower << 1;
+  }
+
+  /**
+   * Sets deqCapacity and the shift and mask derived from it
+   */
+  void setDeqCapacity(int newDeqCapacity) {
+    deqCapacity = newDeqCapacity;
+    deqShift = Integer.numberOfTrailingZeros(newDeqCapacity);
+    deqMask = newDeqCapacity - 1;
+  }
+
+  /**
+   * Allocates new blocks with the optimal ring capacity for minCapacity, and copies every record into them in order
+   * so that every head is 0
+   */
+  void layout(int minCapacity) {
+    int newDeqCapacity = optimalDeqCapacity(minCapacity);
+    int listCapacity = (int) (((long) minCapacity + newDeqCapacity - 1) / newDeqCapacity);
+    if ((long) newDeqCapacity * recordSize > Integer.MAX_VALUE)
+      throw new OutOfMemoryError("Ring of " + newDeqCapacity + " records is too large");
+
+    ByteBuffer[] newBlocks = new ByteBuffer[listCapacity];
+    for (int i = 0; i < listCapacity; i++) {
+      newBlocks[i] = ByteBuffer.allocateDirect(newDeqCapacity * recordSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    if (blocks != null) {
+      copyRecords(newBlocks, newDeqCapacity);
+    }
+    blocks = newBlocks;
+    heads = IntBuffer.allocate(listCapacity);
+    setDeqCapacity(newDeqCapacity);
+  }
+
+  /**
+   * Copies every record, in order, to the start of the given blocks holding dstDeqCapacity records each. Records are
+   * copied as raw bytes, at most two copies per ring and destination block
+   */
+  void copyRecords(ByteBuffer[] dstBlocks, int dstDeqCapacity) {
+    int index = 0;
+    while (index < size) {
+      int ring = index >>> deqShift;
+      int slot = (heads.get(ring) + index) & deqMask;
+      int dstOffset = index % dstDeqCapacity;
+      int n = Math.min(size - index, Math.min(deqCapacity - slot, deqCapacity - (index & deqMask)));
+      n = Math.min(n, dstDeqCapacity - dstOffset);
+      dstBlocks[index / dstDeqCapacity].put(dstOffset * recordSize, blocks[ring], slot * recordSize, n * recordSize);
+      index += n;
+    }
+  }
+
+  /**
+   * Sets the number of records. Subclasses override this to persist it
+   */
+  void setSize(int newSize) {
+    size = newSize;
+  }
+
+  private void ensureOpen() {
+    if (closed)
+      throw new IllegalStateException("OffHeapIgushArray is closed");
+  }
+
+  /**
+   * Releases the off-heap memory of this list. Any later use of it throws an IllegalStateException
+   */
+  @Override
+  public void close() {
+    closed = true;
+    blocks = null;
+    heads = null;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Returns the number of bytes of off-heap memory allocated for the records of this list
+   *
+   * @return the allocated off-heap bytes, 0 once closed
+   */
+  public long offHeapBytes() {
+    return closed ? 0 : (long) blocks.length * deqCapacity * recordSize;
+  }
+
+  /**
+   * Returns the current allocated capacity in records
+   */
+  public int capacity() {
+    ensureOpen();
+    return blocks.length * deqCapacity;
+  }
+
+  /**
+   * Increases the capacity of this OffHeapIgushArray instance, if necessary, to ensure that it can hold at least the
+   * number of records specified by the minimum capacity argument. The records are copied into new blocks with the
+   * optimal ring capacity
+   *
+   * @param minCapacity the size to expand to
+   */
+  public void ensureCapacity(int minCapacity) {
+    ensureOpen();
+    if (minCapacity > capacity()) {
+      layout(minCapacity);
+      modCount++;
+    }
+  }
+
+  /**
+   * Trims the capacity to the list's current size, rounded up to a multiple of the optimal ring capacity for it
+   */
+  public void trimToSize() {
+    ensureOpen();
+    if (capacity() > size) {
+      layout(Math.max(1, size));
+      modCount++;
+    }
+  }
+
+  // grows the capacity by a factor of 1.5, and by at least one
+  private void grow() {
+    int capacity = capacity();
+    if (capacity == Integer.MAX_VALUE)
+      throw new OutOfMemoryError("Required array size too large");
+    layout((int) Math.min(Integer.MAX_VALUE, Math.max(capacity + 1L, capacity * 3L / 2)));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void rangeCheck(int index) {
+    if (index >= size || index < 0)
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+  }
+
+  private void rangeCheckForAdd(int index) {
+    if (index > size || index < 0)
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+  }
+
+  // byte offset of the record at index inside its block
+  private int recordOffset(int ring, int index) {
+    return ((heads.get(ring) + index) & deqMask) * recordSize;
+  }
+
+  @Override
+  public E get(int index) {
+    ensureOpen();
+    rangeCheck(index);
+    int ring = index >>> deqShift;
+    return codec.read(blocks[ring], recordOffset(ring, index));
+  }
+
+  @Override
+  public E set(int index, E element) {
+    ensureOpen();
+    rangeCheck(index);
+    int ring = index >>> deqShift;
+    int offset = recordOffset(ring, index);
+    E oldElement = codec.read(blocks[ring], offset);
+    codec.write(blocks[ring], offset, element);
+    return oldElement;
+  }
+
+  @Override
+  public boolean add(E element) {
+    ensureOpen();
+    if (size == capacity()) {
+      grow();
+    }
+    int ring = size >>> deqShift;
+    codec.write(blocks[ring], recordOffset(ring, size), element);
+    setSize(size + 1);
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Inserts the element at the specified position. The records after it in its ring are moved toward the nearer end
+   * of the ring, and every following full ring is rotated by one record
+   *
+   * @param index   position to add the element at
+   * @param element the element to add
+   */
+  @Override
+  public void add(int index, E element) {
+    ensureOpen();
+    rangeCheckForAdd(index);
+    if (size == capacity()) {
+      grow();
+    }
+    int ring = index >>> deqShift;
+    int lastRing = size >>> deqShift; // the ring that gains a record, it always has space
+    if (ring == lastRing) {
+      insertInRing(ring, index & deqMask, size & deqMask, element);
+    } else {
+      insertInFullRing(ring, index & deqMask, element);
+      // the last record of each full ring moves to the front of the next one
+      for (int i = ring + 1; i < lastRing; i++) {
+        int head = (heads.get(i) - 1) & deqMask;
+        heads.put(i, head);
+        ByteBuffer block = blocks[i];
+        swap.put(0, block, head * recordSize, recordSize);
+        block.put(head * recordSize, carry, 0, recordSize);
+        ByteBuffer temp = carry;
+        carry = swap;
+        swap = temp;
+      }
+      int head = (heads.get(lastRing) - 1) & deqMask;
+      heads.put(lastRing, head);
+      blocks[lastRing].put(head * recordSize, carry, 0, recordSize);
+    }
+    setSize(size + 1);
+    modCount++;
+  }
+
+  /**
+   * Removes the element at the specified position. The first record of every following ring moves to the end of the
+   * ring before it, as raw bytes
+   *
+   * @param index of the element to remove
+   * @return the element that was removed
+   */
+  @Override
+  public E remove(int index) {
+    ensureOpen();
+    rangeCheck(index);
+    int ring = index >>> deqShift;
+    E removedElement = codec.read(blocks[ring], recordOffset(ring, index));
+    int lastRing = (size - 1) >>> deqShift; // the ring that loses a record
+    if (ring == lastRing) {
+      removeInRing(ring, index & deqMask, size - (ring << deqShift));
+    } else {
+      ByteBuffer holeBlock = blocks[ring];
+      int hole = removeInFullRing(ring, index & deqMask);
+      for (int i = ring + 1; i <= lastRing; i++) {
+        int head = heads.get(i);
+        holeBlock.put(hole * recordSize, blocks[i], head * recordSize, recordSize);
+        holeBlock = blocks[i];
+        hole = head;
+        heads.put(i, (head + 1) & deqMask);
+      }
+    }
+    setSize(size - 1);
+    modCount++;
+    return removedElement;
+  }
+
+  /**
+   * Removes all of the elements from this OffHeapIgushArray. The off-heap memory is kept for reuse
+   */
+  @Override
+  public void clear() {
+    ensureOpen();
+    for (int i = 0; i < heads.capacity(); i++) {
+      heads.put(i, 0);
+    }
+    setSize(0);
+    modCount++;
+  }
+
+  private void insertInRing(int ring, int offset, int count, E element) {
+    int head = heads.get(ring);
+    if (offset < count - offset) {
+      head = (head - 1) & deqMask;
+      heads.put(ring, head);
+      ringCopy(blocks[ring], head, 1, 0, offset);
+    } else {
+      ringCopy(blocks[ring], head, offset, offset + 1, count - offset);
+    }
+    codec.write(blocks[ring], ((head + offset) & deqMask) * recordSize, element);
+  }
+
+  // inserts into a full ring, its last record is moved into carry to make space
+  private void insertInFullRing(int ring, int offset, E element) {
+    ByteBuffer block = blocks[ring];
+    int head = heads.get(ring);
+    if (offset < deqMask - offset) {
+      // the slot before head holds the last record, it becomes the new front
+      head = (head - 1) & deqMask;
+      heads.put(ring, head);
+      carry.put(0, block, head * recordSize, recordSize);
+      ringCopy(block, head, 1, 0, offset);
+    } else {
+      carry.put(0, block, ((head + deqMask) & deqMask) * recordSize, recordSize);
+      ringCopy(block, head, offset, offset + 1, deqMask - offset);
+    }
+    codec.write(block, ((head + offset) & deqMask) * recordSize, element);
+  }
+
+  private void removeInRing(int ring, int offset, int count) {
+    int head = heads.get(ring);
+    if (offset < count - 1 - offset) {
+      ringCopy(blocks[ring], head, 0, 1, offset);
+      heads.put(ring, (head + 1) & deqMask);
+    } else {
+      ringCopy(blocks[ring], head, offset + 1, offset, count - 1 - offset);
+    }
+  }
+
+  // removes from a full ring, returning the slot of its free last position
+  private int removeInFullRing(int ring, int offset) {
+    int head = heads.get(ring);
+    if (offset < deqMask - offset) {
+      ringCopy(blocks[ring], head, 0, 1, offset);
+      heads.put(ring, (head + 1) & deqMask);
+      return head;
+    }
+    ringCopy(blocks[ring], head, offset + 1, offset, deqMask - offset);
+    return (head + deqMask) & deqMask;
+  }
+
+  /**
+   * Copies len records of a ring from position src to position dst, both relative to head. Overlapping ranges are
+   * handled like System.arraycopy, and at most three bulk copies are made as either range may wrap around
+   */
+  private void ringCopy(ByteBuffer block, int head, int src, int dst, int len) {
+    if (dst < src) {
+      while (len > 0) {
+        int s = (head + src) & deqMask;
+        int d = (head + dst) & deqMask;
+        int n = Math.min(len, deqCapacity - Math.max(s, d));
+        block.put(d * recordSize, block, s * recordSize, n * recordSize);
+        src += n;
+        dst += n;
+        len -= n;
+      }
+    } else if (dst > src) {
+      while (len > 0) {
+        int sEnd = ((head + src + len - 1) & deqMask) + 1;
+        int dEnd = ((head + dst + len - 1) & deqMask) + 1;
+        int n = Math.min(len, Math.min(sEnd, dEnd));
+        block.put((dEnd - n) * recordSize, block, (sEnd - n) * recordSize, n * recordSize);
+        len -= n;
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts elements to and from fixed-width records, so that they can be stored outside of the Java heap by
+ * OffHeapIgushArray.
+ *
+ * @param <E> the type of element encoded
+ * @author Stone Tao
+ */
+public interface RecordCodec<E> {
+
+  /**
+   * Returns the number of bytes every record takes
+   *
+   * @return the record size in bytes
+   */
+  int recordSize();
+
+  /**
+   * Writes the element as a record into the buffer starting at the given byte offset. Exactly recordSize() bytes
+   * are written, using absolute puts so that the position of the buffer is not changed
+   *
+   * @param buffer  the buffer to write to
+   * @param offset  byte offset of the record in the buffer
+   * @param element the element to write
+   */
+  void write(ByteBuffer buffer, int offset, E element);
+
+  /**
+   * Reads the record starting at the given byte offset of the buffer, using absolute gets
+   *
+   * @param buffer the buffer to read from
+   * @param offset byte offset of the record in the buffer
+   * @return the element stored in the record
+   */
+  E read(ByteBuffer buffer, int offset);
+
+  RecordCodec<Integer> INT = new RecordCodec<Integer>() {
+    @Override
+    public int recordSize() {
+      return Integer.BYTES;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, Integer element) {
+      buffer.putInt(offset, element);
+    }
+
+    @Override
+    public Integer read(ByteBuffer buffer, int offset) {
+      return buffer.getInt(offset);
+    }
+  };
+
+  RecordCodec<Long> LONG = new RecordCodec<Long>() {
+    @Override
+    public int recordSize() {
+      return Long.BYTES;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, Long element) {
+      buffer.putLong(offset, element);
+    }
+
+    @Override
+    public Long read(ByteBuffer buffer, int offset) {
+      return buffer.getLong(offset);
+    }
+  };
+
+  RecordCodec<Double> DOUBLE = new RecordCodec<Double>() {
+    @Override
+    public int recordSize() {
+      return Double.BYTES;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, Double element) {
+      buffer.putDouble(offset, element);
+    }
+
+    @Override
+    public Double read(ByteBuffer buffer, int offset) {
+      return buffer.getDouble(offset);
+    }
+  };
+}
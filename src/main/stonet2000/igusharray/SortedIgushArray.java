@@ -0,0 +1,338 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A list kept sorted by a Comparator, or by the natural ordering of its elements, stored in an IgushArray. Inserting
+ * an element finds its position with a binary search and inserts it in O(N^1/2), and the searches are done in two
+ * levels: over the last element of each FixedDeque first, then inside the ring of the one found.
+ *
+ * Equal elements are kept in the order they were inserted. Elements can be read and removed by index, but not set
+ * or inserted at an index, as that could break the order. Unlike a TreeMap counting duplicates, no node is allocated
+ * per element, only the slot of the element in its FixedDeque.
+ *
+ * @param <E> the type of elements in this list
+ */
+public class SortedIgushArray<E> extends AbstractList<E> implements RandomAccess {
+
+  private final IgushArray<E> list; // the elements, in sorted order
+  private final Comparator<? super E> comparator; // never null, the natural ordering is used if none was given
+
+  /**
+   * Constructs an empty SortedIgushArray with initial capacity of 10, sorted by the natural ordering of its
+   * elements
+   */
+  public SortedIgushArray() {
+    this(10, null);
+  }
+
+  /**
+   * Constructs an empty SortedIgushArray with initial capacity of 10, sorted by the specified comparator
+   *
+   * @param comparator the comparator to sort by, or null for the natural ordering of the elements
+   */
+  public SortedIgushArray(Comparator<? super E> comparator) {
+    this(10, comparator);
+  }
+
+  /**
+   * Constructs an empty SortedIgushArray with the specified initial capacity, sorted by the specified comparator
+   *
+   * @param initialCapacity
+   * @param comparator      the comparator to sort by, or null for the natural ordering of the elements
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is not positive
+   */
+  @SuppressWarnings("unchecked")
+  public SortedIgushArray(int initialCapacity, Comparator<? super E> comparator) {
+    this.list = new IgushArray<>(initialCapacity);
+    this.comparator = comparator != null ? comparator : (Comparator<? super E>) Comparator.naturalOrder();
+  }
+
+  /**
+   * Constructs a SortedIgushArray containing the elements of the specified collection, sorted by the specified
+   * comparator. The elements are sorted once and then copied in, rather than inserted one at a time
+   *
+   * @param c          the collection whose elements are to be placed into this list
+   * @param comparator the comparator to sort by, or null for the natural ordering of the elements
+   * @throws NullPointerException if the specified collection is null
+   */
+  public SortedIgushArray(Collection<? extends E> c, Comparator<? super E> comparator) {
+    this(Math.max(1, c.size()), comparator);
+    addAll(c);
+  }
+
+  /**
+   * Returns the comparator this list is sorted by, which is Comparator.naturalOrder() if none was given
+   *
+   * @return the comparator this list is sorted by
+   */
+  public Comparator<? super E> comparator() {
+    return comparator;
+  }
+
+  /**
+   * Inserts the element at its sorted position, after any elements equal to it
+   *
+   * @param element the element to insert
+   * @return the index the element was inserted at
+   * @throws ClassCastException if the element cannot be compared with the elements of this list
+   */
+  public int insertSorted(E element) {
+    int index = upperBound(element);
+    list.add(index, element);
+    modCount++;
+    return index;
+  }
+
+  /**
+   * Inserts the element at its sorted position, see {@link #insertSorted(Object)}
+   *
+   * @param element the element to insert
+   * @return true
+   */
+  @Override
+  public boolean add(E element) {
+    insertSorted(element);
+    return true;
+  }
+
+  /**
+   * Inserts all of the elements of the specified collection at their sorted positions. The elements are sorted
+   * first. If they all come after the current elements they are appended as a single batch, and if there are more
+   * than N^1/2 of them they are merged with the current elements in O(N + k), which is cheaper than k insertions
+   *
+   * @param c the collection whose elements are to be inserted
+   * @return true if this list was changed
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean addAll(Collection<? extends E> c) {
+    E[] a = (E[]) c.toArray();
+    if (a.length == 0)
+      return false;
+    Arrays.sort(a, comparator);
+    int size = list.size();
+    if (size == 0 || comparator.compare(list.get(size - 1), a[0]) <= 0) {
+      list.addAll(Arrays.asList(a));
+    } else if ((long) a.length * a.length > size) {
+      E[] old = (E[]) list.toArray();
+      Object[] merged = new Object[size + a.length];
+      int i = 0;
+      int j = 0;
+      for (int k = 0; k < merged.length; k++) {
+        // equal elements already in the list stay in front of the new ones
+        if (j == a.length || (i < size && comparator.compare(old[i], a[j]) <= 0)) {
+          merged[k] = old[i++];
+        } else {
+          merged[k] = a[j++];
+        }
+      }
+      list.clear();
+      list.addAll(Arrays.asList((E[]) merged));
+    } else {
+      for (E element : a) {
+        list.add(upperBound(element), element);
+      }
+    }
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Searches for the key with a binary search, as Collections.binarySearch does
+   *
+   * @param key the key to search for
+   * @return the index of the first element equal to key, or (-(insertion point) - 1) if there is none
+   */
+  public int binarySearch(E key) {
+    int index = lowerBound(key);
+    if (index < list.size() && comparator.compare(list.get(index), key) == 0)
+      return index;
+    return -(index + 1);
+  }
+
+  /**
+   * Returns the index of the first element that is not less than key, or the size if there is none
+   *
+   * @param key the key to search for
+   * @return the index of the first element not less than key
+   */
+  public int lowerBound(E key) {
+    return list.bound(key, comparator, false);
+  }
+
+  /**
+   * Returns the index of the first element that is greater than key, or the size if there is none
+   *
+   * @param key the key to search for
+   * @return the index of the first element greater than key
+   */
+  public int upperBound(E key) {
+    return list.bound(key, comparator, true);
+  }
+
+  /**
+   * Returns the number of elements that are less than key, which is the index key would be inserted at before any
+   * elements equal to it
+   *
+   * @param key the key to rank
+   * @return the number of elements less than key
+   */
+  public int rank(E key) {
+    return lowerBound(key);
+  }
+
+  /**
+   * Returns the number of elements between fromKey and toKey
+   *
+   * @param fromKey       low endpoint of the range
+   * @param fromInclusive whether elements equal to fromKey are counted
+   * @param toKey         high endpoint of the range
+   * @param toInclusive   whether elements equal to toKey are counted
+   * @return the number of elements in the range, 0 if toKey is before fromKey
+   */
+  public int count(E fromKey, boolean fromInclusive, E toKey, boolean toInclusive) {
+    int from = fromInclusive ? lowerBound(fromKey) : upperBound(fromKey);
+    int to = toInclusive ? upperBound(toKey) : lowerBound(toKey);
+    return Math.max(0, to - from);
+  }
+
+  /**
+   * Returns the number of elements equal to key
+   *
+   * @param key the key to count
+   * @return the number of elements equal to key
+   */
+  public int count(E key) {
+    return count(key, true, key, true);
+  }
+
+  @Override
+  public E get(int index) {
+    return list.get(index);
+  }
+
+  @Override
+  public int size() {
+    return list.size();
+  }
+
+  @Override
+  public E remove(int index) {
+    E removed = list.remove(index);
+    modCount++;
+    return removed;
+  }
+
+  /**
+   * Removes the first element equal to o, found with a binary search
+   *
+   * @param o the element to remove
+   * @return true if an element was removed
+   * @throws ClassCastException if o cannot be compared with the elements of this list
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean remove(Object o) {
+    int index = binarySearch((E) o);
+    if (index < 0)
+      return false;
+    remove(index);
+    return true;
+  }
+
+  /**
+   * Returns the index of the first element equal to o according to the comparator, found with a binary search
+   *
+   * @throws ClassCastException if o cannot be compared with the elements of this list
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public int indexOf(Object o) {
+    return Math.max(-1, binarySearch((E) o));
+  }
+
+  /**
+   * Returns the index of the last element equal to o according to the comparator, found with a binary search
+   *
+   * @throws ClassCastException if o cannot be compared with the elements of this list
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public int lastIndexOf(Object o) {
+    int index = upperBound((E) o) - 1;
+    if (index >= 0 && comparator.compare(list.get(index), (E) o) == 0)
+      return index;
+    return -1;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  @Override
+  protected void removeRange(int fromIndex, int toIndex) {
+    list.removeRange(fromIndex, toIndex);
+    modCount++;
+  }
+
+  @Override
+  public void clear() {
+    list.clear();
+    modCount++;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return list.toArray();
+  }
+
+  @Override
+  public <T> T[] toArray(T[] a) {
+    return list.toArray(a);
+  }
+
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    list.forEach(action);
+  }
+
+  @Override
+  public Spliterator<E> spliterator() {
+    return list.spliterator();
+  }
+
+  /**
+   * Trims the capacity of the IgushArray holding the elements to the size of this list
+   */
+  public void trimToSize() {
+    list.trimToSize();
+  }
+}
@@ -0,0 +1,509 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package stonet2000.igusharray;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A list stored in a tree of rings with a configurable depth, a generalisation of the two levels of IgushArray. The
+ * leaves are FixedDeques and every interior level is a ring of blocks of the level below, all with the same fanout
+ * F, about N^1/depth. Inserting or removing in the middle changes one FixedDeque and then moves a single element
+ * across the following blocks of each level, which is O(depth) per block, so it is O(depth^2 * N^1/depth): O(N^1/2)
+ * at depth 2 as in IgushArray, and O(N^1/3) at depth 3. Getting and setting find the block of each level with one
+ * division and are O(depth).
+ *
+ * A full block of blocks moves its last element to its front by popping it from its last child and pushing the new
+ * one into its first child, without moving the elements in between, because it keeps one spare block in its ring.
+ * Its elements start after a gap of less than one child block at the front, and the spare block is always empty
+ * when the gap is empty, so it can be rotated from the end of the ring to the front when an element is needed
+ * there, the same way IgushArray opens room at its front for Deque operations.
+ *
+ * @param <E> the type of elements in this list
+ */
+public class TieredIgushArray<E> extends AbstractList<E> implements RandomAccess {
+
+  private final int depth; // number of levels, the FixedDeques being the lowest one
+  private Block<E> root; // a FixedDeque when depth is 1, otherwise a Node
+  private static final int DEFAULT_DEPTH = 3;
+
+  /**
+   * Constructs an empty TieredIgushArray with initial capacity of 10 and a depth of 3
+   */
+  public TieredIgushArray() {
+    this(10, DEFAULT_DEPTH);
+  }
+
+  /**
+   * Constructs an empty TieredIgushArray with the specified initial capacity and a depth of 3
+   *
+   * @param initialCapacity
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative
+   */
+  public TieredIgushArray(int initialCapacity) {
+    this(initialCapacity, DEFAULT_DEPTH);
+  }
+
+  /**
+   * Constructs an empty TieredIgushArray with the specified initial capacity and number of levels. A depth of 2 has
+   * the layout of IgushArray, and each level added divides the exponent of the insertion cost further, at the price
+   * of one more division and lookup when getting an element
+   *
+   * @param initialCapacity
+   * @param depth           the number of levels, at least 1
+   * @throws IllegalArgumentException if the specified initial capacity
+   *                                  is negative or the depth is less than 1
+   */
+  public TieredIgushArray(int initialCapacity, int depth) {
+    if (initialCapacity < 0)
+      throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+    if (depth < 1)
+      throw new IllegalArgumentException("Illegal Depth: " + depth);
+    this.depth = depth;
+    this.root = newRoot(initialCapacity);
+  }
+
+  /**
+   * Constructs a TieredIgushArray of the specified depth containing the elements of the specified collection, in the
+   * order they are returned by the collection's iterator
+   *
+   * @param c     the collection whose elements are to be placed into this list
+   * @param depth the number of levels, at least 1
+   * @throws NullPointerException     if the specified collection is null
+   * @throws IllegalArgumentException if the depth is less than 1
+   */
+  public TieredIgushArray(Collection<? extends E> c, int depth) {
+    this(c.size(), depth);
+    for (E e : c)
+      root.add(e);
+  }
+
+  /**
+   * Returns the number of levels of this TieredIgushArray
+   *
+   * @return the depth of this TieredIgushArray
+   */
+  public int depth() {
+    return depth;
+  }
+
+  /**
+   * Returns the number of elements this TieredIgushArray can hold before it has to grow
+   *
+   * @return the capacity of this TieredIgushArray
+   */
+  public int capacity() {
+    return root.capacity();
+  }
+
+  /**
+   * Increases the capacity of this TieredIgushArray, if necessary, to hold at least minCapacity elements. The
+   * fanout is recomputed for the new capacity and every element is copied into the new blocks
+   *
+   * @param minCapacity the desired minimum capacity
+   */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > root.capacity())
+      resize(minCapacity);
+  }
+
+  /**
+   * Trims the capacity of this TieredIgushArray to about its current size, copying every element into blocks with
+   * the fanout for that size
+   */
+  public void trimToSize() {
+    if (fanout(size(), depth) < fanout(root.capacity(), depth))
+      resize(size());
+  }
+
+  private void resize(int minCapacity) {
+    Block<E> newRoot = newRoot(minCapacity);
+    root.forEach(newRoot::add);
+    root = newRoot;
+    modCount++;
+  }
+
+  private void grow() {
+    int capacity = root.capacity();
+    resize((int) Math.min(Integer.MAX_VALUE, Math.max(capacity + 1L, (long) (capacity * 1.5))));
+  }
+
+  private Block<E> newRoot(int minCapacity) {
+    int fanout = fanout(minCapacity, depth);
+    return depth == 1 ? new FixedDeque<>(fanout) : new Node<>(depth, fanout);
+  }
+
+  /**
+   * Returns the smallest fanout F, at least 2, with F^depth at least minCapacity
+   */
+  private static int fanout(int minCapacity, int depth) {
+    int fanout = Math.max(2, (int) Math.ceil(Math.pow(minCapacity, 1.0 / depth)));
+    // Math.pow is not exact, so step the estimate to the right fanout
+    while (fanout > 2 && power(fanout - 1, depth) >= minCapacity)
+      fanout--;
+    while (power(fanout, depth) < minCapacity)
+      fanout++;
+    // every level keeps a spare block, and positions in the root go up to (F + 1) * F^(depth - 1)
+    if (depth > 1 && (fanout + 1) * power(fanout, depth - 1) > Integer.MAX_VALUE)
+      throw new OutOfMemoryError("Required capacity too large for depth " + depth + ": " + minCapacity);
+    return fanout;
+  }
+
+  private static long power(long base, int exponent) {
+    long result = 1;
+    for (int i = 0; i < exponent; i++)
+      result *= base;
+    return result;
+  }
+
+  @Override
+  public int size() {
+    return root.size();
+  }
+
+  /**
+   * Gets the element stored in the specified index of this TieredIgushArray. O(depth)
+   *
+   * @param index index of the element to return
+   * @return the element at the specified position in this list
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public E get(int index) {
+    rangeCheck(index);
+    return root.get(index);
+  }
+
+  /**
+   * Replaces the element at the specified position in this TieredIgushArray with the specified element. O(depth)
+   *
+   * @param index   index of the element to replace
+   * @param element element to be stored at the specified position
+   * @return the element previously at the specified position
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public E set(int index, E element) {
+    rangeCheck(index);
+    return root.set(index, element);
+  }
+
+  /**
+   * Appends the specified element to the end of this list. O(depth) amortized
+   *
+   * @param e element to be appended to this list
+   * @return true
+   */
+  @Override
+  public boolean add(E e) {
+    if (root.isFull())
+      grow();
+    root.add(e);
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Inserts the specified element at the specified position in this list. O(depth * N^1/depth)
+   *
+   * @param index   index at which the specified element is to be inserted
+   * @param element element to be inserted
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public void add(int index, E element) {
+    rangeCheckForAdd(index);
+    if (root.isFull())
+      grow();
+    root.fixedAdd(index, element);
+    modCount++;
+  }
+
+  /**
+   * Removes the element at the specified position in this list. O(depth * N^1/depth)
+   *
+   * @param index the index of the element to be removed
+   * @return the element that was removed from the list
+   * @throws IndexOutOfBoundsException {@inheritDoc}
+   */
+  @Override
+  public E remove(int index) {
+    rangeCheck(index);
+    modCount++;
+    return root.remove(index);
+  }
+
+  @Override
+  public void clear() {
+    root.clear();
+    modCount++;
+  }
+
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+    int expectedModCount = modCount;
+    root.forEach(action);
+    if (modCount != expectedModCount)
+      throw new ConcurrentModificationException();
+  }
+
+  private void rangeCheck(int index) {
+    if (index >= size() || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private void rangeCheckForAdd(int index) {
+    if (index > size() || index < 0)
+      throw new IndexOutOfBoundsException(outOfBoundsMsg(index));
+  }
+
+  private String outOfBoundsMsg(int index) {
+    return "Index: " + index + ", Size: " + size() + ", Capacity: " + capacity();
+  }
+
+  /**
+   * An interior block, a ring of fanout + 1 child blocks each of childCapacity, of which at most fanout are needed to
+   * hold its capacity. The children are numbered from head around the ring, and child j covers the positions
+   * j * childCapacity to (j + 1) * childCapacity - 1. The elements are at the positions front to front + size - 1,
+   * so every child between the first and the last one is full and the last child of the ring is empty whenever
+   * front is 0. Only the number of elements of a child is fixed by this, not where they are inside it.
+   */
+  private static final class Node<E> implements Block<E> {
+    private final Block<E>[] children; // the ring of child blocks
+    private final int childCapacity; // capacity of each child
+    private int head; // index in children of child 0
+    private int front; // free positions before the first element, less than childCapacity
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    Node(int level, int fanout) {
+      children = (Block<E>[]) new Block<?>[fanout + 1];
+      for (int i = 0; i < children.length; i++)
+        children[i] = level == 2 ? new FixedDeque<>(fanout) : new Node<>(level - 1, fanout);
+      childCapacity = children[0].capacity();
+    }
+
+    private Block<E> child(int j) {
+      int i = head + j;
+      return children[i < children.length ? i : i - children.length];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public int capacity() {
+      return (children.length - 1) * childCapacity;
+    }
+
+    @Override
+    public boolean isFull() {
+      return size == capacity();
+    }
+
+    @Override
+    public E get(int index) {
+      int pos = index + front;
+      int j = pos / childCapacity;
+      return child(j).get(j == 0 ? index : pos - j * childCapacity);
+    }
+
+    @Override
+    public E set(int index, E element) {
+      int pos = index + front;
+      int j = pos / childCapacity;
+      return child(j).set(j == 0 ? index : pos - j * childCapacity, element);
+    }
+
+    /**
+     * Moves the empty last child of the ring to the front, leaving front at childCapacity until an element is added
+     * to it. Only used when front is 0
+     */
+    private void openFront() {
+      head = head == 0 ? children.length - 1 : head - 1;
+      front = childCapacity;
+    }
+
+    @Override
+    public boolean fixedAdd(int index, E element) {
+      if (size == capacity())
+        return false;
+      if (index < size - index) {
+        // nearer to the front, the elements before index move one position towards the front
+        if (front == 0)
+          openFront();
+        front--;
+        int pos = index + front;
+        int j = pos / childCapacity;
+        if (j == 0) {
+          child(0).fixedAdd(index, element);
+        } else {
+          Block<E> block = child(j);
+          E carry = block.popFront();
+          block.fixedAdd(pos - j * childCapacity, element);
+          for (int t = j - 1; t > 0; t--)
+            carry = child(t).shiftDown(carry);
+          child(0).add(carry);
+        }
+      } else {
+        // nearer to the end, the elements from index on move one position towards the end
+        int pos = index + front;
+        int j = pos / childCapacity;
+        int last = (front + size) / childCapacity; // the child the position after the last element is in
+        Block<E> block = child(j);
+        int i = j == 0 ? index : pos - j * childCapacity;
+        if (j == last) {
+          block.fixedAdd(i, element);
+        } else {
+          E carry = block.pop();
+          block.fixedAdd(i, element);
+          for (int t = j + 1; t < last; t++)
+            carry = child(t).shiftUp(carry);
+          child(last).pushFront(carry);
+        }
+      }
+      size++;
+      return true;
+    }
+
+    @Override
+    public E remove(int index) {
+      int pos = index + front;
+      int j = pos / childCapacity;
+      Block<E> block = child(j);
+      E removed = block.remove(j == 0 ? index : pos - j * childCapacity);
+      if (index < size - 1 - index) {
+        // nearer to the front, the elements before index move one position towards the end
+        if (j > 0) {
+          E carry = child(0).pop();
+          for (int t = 1; t < j; t++)
+            carry = child(t).shiftUp(carry);
+          block.pushFront(carry);
+        }
+        front++;
+      } else {
+        // nearer to the end, the elements after index move one position towards the front
+        int last = (front + size - 1) / childCapacity; // the child the last element is in
+        if (j < last) {
+          E carry = child(last).popFront();
+          for (int t = last - 1; t > j; t--)
+            carry = child(t).shiftDown(carry);
+          block.add(carry);
+        }
+      }
+      size--;
+      normalizeFront();
+      return removed;
+    }
+
+    /**
+     * Moves an emptied first child to the end of the ring, so that front stays less than childCapacity
+     */
+    private void normalizeFront() {
+      if (size == 0) {
+        front = 0;
+      } else if (front == childCapacity) {
+        head = head + 1 == children.length ? 0 : head + 1;
+        front = 0;
+      }
+    }
+
+    @Override
+    public boolean add(E element) {
+      if (size == capacity())
+        return false;
+      child((front + size) / childCapacity).add(element);
+      size++;
+      return true;
+    }
+
+    @Override
+    public boolean pushFront(E element) {
+      if (size == capacity())
+        return false;
+      if (front == 0)
+        openFront();
+      child(0).pushFront(element);
+      front--;
+      size++;
+      return true;
+    }
+
+    @Override
+    public E pop() {
+      E element = child((front + size - 1) / childCapacity).pop();
+      size--;
+      normalizeFront();
+      return element;
+    }
+
+    @Override
+    public E popFront() {
+      E element = child(0).popFront();
+      front++;
+      size--;
+      normalizeFront();
+      return element;
+    }
+
+    @Override
+    public E shiftUp(E element) {
+      E last = pop();
+      pushFront(element);
+      return last;
+    }
+
+    @Override
+    public E shiftDown(E element) {
+      E first = popFront();
+      add(element);
+      return first;
+    }
+
+    @Override
+    public void clear() {
+      for (Block<E> block : children) {
+        if (block.size() > 0)
+          block.clear();
+      }
+      head = 0;
+      front = 0;
+      size = 0;
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+      if (size == 0)
+        return;
+      int last = (front + size - 1) / childCapacity;
+      for (int j = 0; j <= last; j++)
+        child(j).forEach(action);
+    }
+  }
+}
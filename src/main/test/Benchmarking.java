@@ -132,6 +132,16 @@ public class Benchmarking {
         }
     }
 
+    /**
+     * Measure random access for IgushArray with power of two blocks
+     */
+    @Benchmark
+    public void IgushArrayPowerOfTwoRandomAccess(IgushArrayPowerOfTwoStateFull state, Blackhole bh) {
+        for (int i = accessTimes; --i >= 0; ) {
+            bh.consume(state.igushArray.get(0));
+        }
+    }
+
     /**
      * Measure random access for ArrayList
      */
@@ -142,6 +152,97 @@ public class Benchmarking {
         }
     }
 
+    /**
+     * Measure iterating over every element of IgushArray
+     */
+    @Benchmark
+    public void IgushArrayIterate(IgushArrayStateFull state, Blackhole bh) {
+        for (Integer i : state.igushArray) {
+            bh.consume(i);
+        }
+    }
+
+    /**
+     * Measure iterating over every element of ArrayList
+     */
+    @Benchmark
+    public void ArrayListIterate(ArrayListStateFull state, Blackhole bh) {
+        for (Integer i : state.arrayList) {
+            bh.consume(i);
+        }
+    }
+
+    /**
+     * Measure copying IgushArray into an array
+     */
+    @Benchmark
+    public Object[] IgushArrayToArray(IgushArrayStateFull state) {
+        return state.igushArray.toArray();
+    }
+
+    /**
+     * Measure copying ArrayList into an array
+     */
+    @Benchmark
+    public Object[] ArrayListToArray(ArrayListStateFull state) {
+        return state.arrayList.toArray();
+    }
+
+    /**
+     * Measure taking a snapshot of IgushArray and then changing one element, which copies a single FixedDeque
+     */
+    @Benchmark
+    public List<Integer> IgushArraySnapshotAndSet(IgushArrayStateSnapshot state) {
+        List<Integer> snapshot = state.igushArray.snapshot();
+        state.igushArray.set(state.rand.nextInt(state.listSize), 0);
+        return snapshot;
+    }
+
+    /**
+     * Measure copying ArrayList for a consistent view and then changing one element
+     */
+    @Benchmark
+    public List<Integer> ArrayListCopyAndSet(ArrayListStateFull state) {
+        List<Integer> copy = new ArrayList<>(state.arrayList);
+        state.arrayList.set(state.rand.nextInt(state.listSize), 0);
+        return copy;
+    }
+
+    /**
+     * Measure sorting a shuffled IgushArray
+     */
+    @Benchmark
+    public void IgushArraySort(IgushArrayStateShuffled state) {
+        state.igushArray.sort(null);
+    }
+
+    /**
+     * Measure sorting a shuffled IgushArray with parallelSort
+     */
+    @Benchmark
+    public void IgushArrayParallelSort(IgushArrayStateShuffled state) {
+        state.igushArray.parallelSort(null);
+    }
+
+    /**
+     * Measure sorting a shuffled ArrayList
+     */
+    @Benchmark
+    public void ArrayListSort(ArrayListStateShuffled state) {
+        state.arrayList.sort(null);
+    }
+
+    /**
+     * Measure the latency of single pushes to the end of an IgushArray that keeps growing, including the pushes that
+     * grow it. The maximum sample shows the cost of growing all at once or incrementally
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void IgushArrayGrowingPushEnd(IgushArrayStateGrowing state) {
+        state.igushArray.add(0);
+    }
+
     @State(Scope.Benchmark)
     /* Parameters to allow for varying density of list */
     public static class VaryDensityState {
@@ -236,4 +337,77 @@ public class Benchmarking {
             }
         }
     }
+
+    @State(Scope.Benchmark)
+    public static class IgushArrayPowerOfTwoStateFull extends FullDensityState {
+        List<Integer> igushArray;
+
+        @Setup(Level.Invocation)
+        public void doSetup() {
+            igushArray = new IgushArray<>(listSize, true);
+
+            // fill up list completely
+            for (int i = 0; i < listSize; i++) {
+                igushArray.add(-1);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IgushArrayStateSnapshot extends FullDensityState {
+        IgushArray<Integer> igushArray;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            igushArray = new IgushArray<>(listSize);
+
+            // fill up list completely
+            for (int i = 0; i < listSize; i++) {
+                igushArray.add(-1);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IgushArrayStateShuffled extends FullDensityState {
+        IgushArray<Integer> igushArray;
+
+        @Setup(Level.Invocation)
+        public void doSetup() {
+            igushArray = new IgushArray<>(listSize);
+
+            // fill up list completely with random values
+            for (int i = 0; i < listSize; i++) {
+                igushArray.add(rand.nextInt());
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ArrayListStateShuffled extends FullDensityState {
+        List<Integer> arrayList;
+
+        @Setup(Level.Invocation)
+        public void doSetup() {
+            arrayList = new ArrayList<>(listSize);
+
+            // fill up list completely with random values
+            for (int i = 0; i < listSize; i++) {
+                arrayList.add(rand.nextInt());
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IgushArrayStateGrowing {
+        @Param({"false", "true"})
+        public boolean incrementalGrowth;
+
+        List<Integer> igushArray;
+
+        @Setup(Level.Iteration)
+        public void doSetup() {
+            igushArray = new IgushArray<>(10, false, incrementalGrowth);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import stonet2000.igusharray.ConcurrentIgushArray;
+import stonet2000.igusharray.IgushArray;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ConcurrentIgushArray with an IgushArray wrapped in Collections.synchronizedList, shared by several threads
+ * that each mix random reads with inserts. Each insert is followed by a removal so that the size stays the same. Run
+ * with -t to change the number of threads
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Threads(4)
+@Fork(value = 1)
+
+public class ConcurrentBenchmarking {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConcurrentBenchmarking.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Measure a read or an insert and removal on a shared ConcurrentIgushArray
+     */
+    @Benchmark
+    public Integer ConcurrentIgushArrayMixed(ConcurrentIgushArrayState state) {
+        return mixed(state.list, state);
+    }
+
+    /**
+     * Measure a read or an insert and removal on a shared synchronized IgushArray
+     */
+    @Benchmark
+    public Integer SynchronizedIgushArrayMixed(SynchronizedIgushArrayState state) {
+        return mixed(state.list, state);
+    }
+
+    private static Integer mixed(List<Integer> list, Ratios state) {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        if (rand.nextInt(100) < state.readPercent) {
+            return list.get(rand.nextInt(state.listSize));
+        }
+        list.add(rand.nextInt(state.listSize), -1);
+        return list.remove(rand.nextInt(state.listSize));
+    }
+
+    @State(Scope.Benchmark)
+    public static class Ratios {
+        @Param({"50", "90", "99"})
+        public int readPercent;
+
+        @Param({"10000", "1000000"})
+        public int listSize;
+    }
+
+    @State(Scope.Benchmark)
+    public static class ConcurrentIgushArrayState extends Ratios {
+        List<Integer> list;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            list = new ConcurrentIgushArray<>(listSize + 1);
+            for (int i = 0; i < listSize; i++) {
+                list.add(i);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SynchronizedIgushArrayState extends Ratios {
+        List<Integer> list;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            list = Collections.synchronizedList(new IgushArray<>(listSize + 1));
+            for (int i = 0; i < listSize; i++) {
+                list.add(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import stonet2000.igusharray.IgushArray;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares IgushArray used as a Deque with ArrayDeque. Each benchmark adds one element and removes one, so the size
+ * stays the same: pushing and popping at the front, and using the Deque as a queue that adds at the end and removes
+ * from the front
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+
+public class DequeBenchmarking {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(DequeBenchmarking.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Measure pushing an element to the front of IgushArray and popping it again
+     */
+    @Benchmark
+    public Integer IgushArrayPushPopFront(IgushArrayState state) {
+        state.deque.addFirst(state.value);
+        return state.deque.pollFirst();
+    }
+
+    /**
+     * Measure pushing an element to the front of ArrayDeque and popping it again
+     */
+    @Benchmark
+    public Integer ArrayDequePushPopFront(ArrayDequeState state) {
+        state.deque.addFirst(state.value);
+        return state.deque.pollFirst();
+    }
+
+    /**
+     * Measure adding an element to the end of IgushArray and removing one from the front
+     */
+    @Benchmark
+    public Integer IgushArrayQueue(IgushArrayState state) {
+        state.deque.offerLast(state.value);
+        return state.deque.pollFirst();
+    }
+
+    /**
+     * Measure adding an element to the end of ArrayDeque and removing one from the front
+     */
+    @Benchmark
+    public Integer ArrayDequeQueue(ArrayDequeState state) {
+        state.deque.offerLast(state.value);
+        return state.deque.pollFirst();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sizes {
+        @Param({"1000", "1000000"})
+        public int listSize;
+        Integer value = 42;
+    }
+
+    @State(Scope.Thread)
+    public static class IgushArrayState extends Sizes {
+        Deque<Integer> deque;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            deque = new IgushArray<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                deque.add(i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ArrayDequeState extends Sizes {
+        Deque<Integer> deque;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            deque = new ArrayDeque<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                deque.add(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import stonet2000.igusharray.IgushArray;
+import stonet2000.igusharray.IntIgushArray;
+import stonet2000.igusharray.LongIgushArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the primitive IntIgushArray and LongIgushArray against the boxed IgushArray and ArrayList
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+
+public class PrimitiveBenchmarking {
+
+    static final int SEED = 31415926; // must be large
+    @Param({"1000000"})
+    public int accessTimes;
+    @Param({"1000"})
+    public int insertTimes;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PrimitiveBenchmarking.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Measure filling a list from empty to listSize
+     */
+    @Benchmark
+    public IntIgushArray IntIgushArrayPushEnd(Indices state) {
+        IntIgushArray list = new IntIgushArray();
+        for (int i = 0; i < state.listSize; i++) {
+            list.addInt(i);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Integer> IgushArrayPushEnd(Indices state) {
+        List<Integer> list = new IgushArray<>();
+        for (int i = 0; i < state.listSize; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Integer> ArrayListPushEnd(Indices state) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < state.listSize; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    /**
+     * Measure access of random indices
+     */
+    @Benchmark
+    public void IntIgushArrayRandomAccess(IntIgushArrayState state, Blackhole bh) {
+        int[] indices = state.indices;
+        for (int i = accessTimes; --i >= 0; ) {
+            bh.consume(state.intArray.getInt(indices[i]));
+        }
+    }
+
+    @Benchmark
+    public void LongIgushArrayRandomAccess(LongIgushArrayState state, Blackhole bh) {
+        int[] indices = state.indices;
+        for (int i = accessTimes; --i >= 0; ) {
+            bh.consume(state.longArray.getLong(indices[i]));
+        }
+    }
+
+    @Benchmark
+    public void IgushArrayRandomAccess(IgushArrayState state, Blackhole bh) {
+        int[] indices = state.indices;
+        for (int i = accessTimes; --i >= 0; ) {
+            bh.consume(state.igushArray.get(indices[i]));
+        }
+    }
+
+    @Benchmark
+    public void ArrayListRandomAccess(ArrayListState state, Blackhole bh) {
+        int[] indices = state.indices;
+        for (int i = accessTimes; --i >= 0; ) {
+            bh.consume(state.arrayList.get(indices[i]));
+        }
+    }
+
+    /**
+     * Measure inserting at random indices
+     */
+    @Benchmark
+    public void IntIgushArrayRandomInsert(IntIgushArrayState state) {
+        int[] indices = state.indices;
+        for (int i = insertTimes; --i >= 0; ) {
+            state.intArray.addInt(indices[i], i);
+        }
+    }
+
+    @Benchmark
+    public void IgushArrayRandomInsert(IgushArrayState state) {
+        int[] indices = state.indices;
+        for (int i = insertTimes; --i >= 0; ) {
+            state.igushArray.add(indices[i], i);
+        }
+    }
+
+    @Benchmark
+    public void ArrayListRandomInsert(ArrayListState state) {
+        int[] indices = state.indices;
+        for (int i = insertTimes; --i >= 0; ) {
+            state.arrayList.add(indices[i], i);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    /* Parameters for the list size and the random indices accessed */
+    public static class Indices {
+        @Param({"10000", "1000000", "10000000"})
+        public int listSize;
+
+        public int[] indices;
+
+        @Setup(Level.Trial)
+        public void makeIndices() {
+            Random rand = new Random(SEED);
+            indices = new int[1000000];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = rand.nextInt(listSize);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IntIgushArrayState extends Indices {
+        IntIgushArray intArray;
+
+        @Setup(Level.Invocation)
+        public void doSetup() {
+            intArray = new IntIgushArray(listSize);
+            for (int i = 0; i < listSize; i++) {
+                intArray.addInt(i);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LongIgushArrayState extends Indices {
+        LongIgushArray longArray;
+
+        @Setup(Level.Invocation)
+        public void doSetup() {
+            longArray = new LongIgushArray(listSize);
+            for (int i = 0; i < listSize; i++) {
+                longArray.addLong(i);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IgushArrayState extends Indices {
+        List<Integer> igushArray;
+
+        @Setup(Level.Invocation)
+        public void doSetup() {
+            igushArray = new IgushArray<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                igushArray.add(i);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ArrayListState extends Indices {
+        List<Integer> arrayList;
+
+        @Setup(Level.Invocation)
+        public void doSetup() {
+            arrayList = new ArrayList<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                arrayList.add(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import stonet2000.igusharray.SortedIgushArray;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares SortedIgushArray with a TreeMap counting duplicates, the usual sorted multiset in the JDK, for searches
+ * and for an insert followed by a removal, which keeps the size constant. Run with -prof gc to compare the
+ * allocation of the two
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+
+public class SortedBenchmarking {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SortedBenchmarking.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Measure searching for a random key in SortedIgushArray
+     */
+    @Benchmark
+    public int SortedIgushArraySearch(SortedIgushArrayState state) {
+        return state.sortedArray.binarySearch(state.random.nextInt());
+    }
+
+    /**
+     * Measure inserting a random key into SortedIgushArray and removing another
+     */
+    @Benchmark
+    public int SortedIgushArrayInsertRemove(SortedIgushArrayState state) {
+        int index = state.sortedArray.insertSorted(state.random.nextInt());
+        state.sortedArray.remove(state.random.nextInt(state.sortedArray.size()));
+        return index;
+    }
+
+    /**
+     * Measure searching for a random key in a TreeMap
+     */
+    @Benchmark
+    public Integer TreeMapSearch(TreeMapState state) {
+        return state.treeMap.ceilingKey(state.random.nextInt());
+    }
+
+    /**
+     * Measure inserting a random key into a TreeMap and removing another
+     */
+    @Benchmark
+    public Integer TreeMapInsertRemove(TreeMapState state) {
+        Integer count = state.treeMap.merge(state.random.nextInt(), 1, Integer::sum);
+        Integer key = state.treeMap.ceilingKey(state.random.nextInt());
+        if (key == null) {
+            key = state.treeMap.firstKey();
+        }
+        state.treeMap.computeIfPresent(key, (k, c) -> c == 1 ? null : c - 1);
+        return count;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sizes {
+        @Param({"10000", "1000000"})
+        public int listSize;
+    }
+
+    @State(Scope.Thread)
+    public static class SortedIgushArrayState extends Sizes {
+        SortedIgushArray<Integer> sortedArray;
+        Random random = new Random(42);
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            sortedArray = new SortedIgushArray<>();
+            for (int i = 0; i < listSize; i++) {
+                sortedArray.add(random.nextInt());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TreeMapState extends Sizes {
+        TreeMap<Integer, Integer> treeMap;
+        Random random = new Random(42);
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            treeMap = new TreeMap<>();
+            for (int i = 0; i < listSize; i++) {
+                treeMap.merge(random.nextInt(), 1, Integer::sum);
+            }
+        }
+    }
+}
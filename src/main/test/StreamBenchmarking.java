@@ -0,0 +1,122 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import stonet2000.igusharray.IgushArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sequential and parallel streams over IgushArray and ArrayList. Run with a different number of threads
+ * in the common pool, e.g. -Djava.util.concurrent.ForkJoinPool.common.parallelism=16, to see how they scale
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1)
+
+public class StreamBenchmarking {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(StreamBenchmarking.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Measure a map, filter and reduce over IgushArray in a sequential stream
+     */
+    @Benchmark
+    public long IgushArraySequentialStream(IgushArrayState state) {
+        return state.igushArray.stream().mapToLong(i -> i * 3L).filter(i -> i % 7 != 0).sum();
+    }
+
+    /**
+     * Measure a map, filter and reduce over IgushArray in a parallel stream
+     */
+    @Benchmark
+    public long IgushArrayParallelStream(IgushArrayState state) {
+        return state.igushArray.parallelStream().mapToLong(i -> i * 3L).filter(i -> i % 7 != 0).sum();
+    }
+
+    /**
+     * Measure a map, filter and reduce over ArrayList in a sequential stream
+     */
+    @Benchmark
+    public long ArrayListSequentialStream(ArrayListState state) {
+        return state.arrayList.stream().mapToLong(i -> i * 3L).filter(i -> i % 7 != 0).sum();
+    }
+
+    /**
+     * Measure a map, filter and reduce over ArrayList in a parallel stream
+     */
+    @Benchmark
+    public long ArrayListParallelStream(ArrayListState state) {
+        return state.arrayList.parallelStream().mapToLong(i -> i * 3L).filter(i -> i % 7 != 0).sum();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sizes {
+        @Param({"1000000", "10000000"})
+        public int listSize;
+    }
+
+    @State(Scope.Benchmark)
+    public static class IgushArrayState extends Sizes {
+        List<Integer> igushArray;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            igushArray = new IgushArray<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                igushArray.add(i);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ArrayListState extends Sizes {
+        List<Integer> arrayList;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            arrayList = new ArrayList<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                arrayList.add(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.junit.Before;
+import org.junit.Test;
+import stonet2000.igusharray.ConcurrentIgushArray;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TestConcurrentIgushArray {
+
+  static final int INITIAL_AMOUNT = 55; // amount of initial values in ConcurrentIgushArray for testing
+  static final int ADD_AMOUNT = 150; // amount of values to add for testing
+  static final int RANGE = 1000; // range of values to add, namely [-RANGE/2, RANGE/2]
+  static final int THREADS = 4; // number of threads changing the list at once
+  static final int THREAD_AMOUNT = 5000; // amount of operations done by each thread
+
+  ConcurrentIgushArray<Integer> concurrentArray;
+  List<Integer> truthList;
+
+  @Before
+  public void setUp() {
+    concurrentArray = new ConcurrentIgushArray<>();
+    // this truthList should be the same as ConcurrentIgushArray if we apply the same methods on them
+    truthList = new ArrayList<>();
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      concurrentArray.add(i);
+      truthList.add(i);
+    }
+  }
+
+  public int randInt() {
+    return (int) (Math.random() * RANGE - RANGE / 2);
+  }
+
+  public int randomIndexInList(List<?> list) {
+    return (int) (Math.random() * list.size());
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int value = randInt();
+      concurrentArray.add(index, value);
+      truthList.add(index, value);
+    }
+    assertEquals(truthList, concurrentArray);
+    assertTrue(concurrentArray.capacity() >= truthList.size());
+
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      assertEquals(truthList.remove(index), concurrentArray.remove(index));
+      index = randomIndexInList(truthList);
+      assertEquals(truthList.set(index, i), concurrentArray.set(index, i));
+    }
+    assertEquals(truthList, concurrentArray);
+    assertArrayEquals(truthList.toArray(new Integer[0]), concurrentArray.toArray(new Integer[0]));
+
+    concurrentArray.clear();
+    assertTrue(concurrentArray.isEmpty());
+  }
+
+  @Test
+  public void testRemoveObject() {
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int element = randInt();
+      concurrentArray.add(index, element);
+      truthList.add(index, element);
+    }
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      Integer element = randInt();
+      assertEquals(truthList.remove(element), concurrentArray.remove(element));
+    }
+    assertEquals(truthList, concurrentArray);
+  }
+
+  @Test
+  public void testRemoveIf() {
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      concurrentArray.add(i);
+      truthList.add(i);
+    }
+    assertTrue(concurrentArray.removeIf(e -> e % 3 == 0));
+    truthList.removeIf(e -> e % 3 == 0);
+    assertEquals(truthList, concurrentArray);
+    assertFalse(concurrentArray.removeIf(e -> e % 3 == 0));
+    concurrentArray.add(-1);
+    truthList.add(-1);
+    assertEquals(truthList, concurrentArray);
+  }
+
+  @Test
+  public void testRemoveAllAndRetainAll() {
+    List<Integer> odd = new ArrayList<>();
+    for (int i = 1; i < INITIAL_AMOUNT; i += 2) {
+      odd.add(i);
+    }
+    assertTrue(concurrentArray.removeAll(odd));
+    truthList.removeAll(odd);
+    assertEquals(truthList, concurrentArray);
+
+    List<Integer> small = Arrays.asList(0, 2, 4, 6, 8);
+    assertTrue(concurrentArray.retainAll(small));
+    truthList.retainAll(small);
+    assertEquals(truthList, concurrentArray);
+    assertFalse(concurrentArray.retainAll(small));
+  }
+
+  @Test
+  public void testSubListClear() {
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      concurrentArray.add(i);
+      truthList.add(i);
+    }
+    concurrentArray.subList(10, 70).clear();
+    truthList.subList(10, 70).clear();
+    assertEquals(truthList, concurrentArray);
+    concurrentArray.subList(0, concurrentArray.size()).clear();
+    assertTrue(concurrentArray.isEmpty());
+    concurrentArray.add(1);
+    assertEquals(Collections.singletonList(1), concurrentArray);
+  }
+
+  @Test(expected = ConcurrentModificationException.class)
+  public void testSubListFailFast() {
+    List<Integer> subList = concurrentArray.subList(10, 20);
+    concurrentArray.remove(0);
+    subList.get(0);
+  }
+
+  @Test
+  public void testConcurrentRemoveIf() throws InterruptedException {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[THREADS];
+    for (int t = 0; t < THREADS; t++) {
+      boolean remover = t % 2 == 0;
+      threads[t] = new Thread(() -> {
+        try {
+          for (int i = 0; i < THREAD_AMOUNT / 10; i++) {
+            if (remover) {
+              concurrentArray.removeIf(e -> e < 0);
+            } else {
+              concurrentArray.add(ThreadLocalRandom.current().nextInt(INITIAL_AMOUNT), -1);
+            }
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(failure.get());
+    concurrentArray.removeIf(e -> e < 0);
+    assertEquals(truthList, concurrentArray);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    concurrentArray.get(INITIAL_AMOUNT);
+  }
+
+  @Test
+  public void testConcurrentAdd() throws InterruptedException {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[THREADS];
+    for (int t = 0; t < THREADS; t++) {
+      int first = INITIAL_AMOUNT + t * THREAD_AMOUNT;
+      threads[t] = new Thread(() -> {
+        try {
+          ThreadLocalRandom rand = ThreadLocalRandom.current();
+          for (int i = 0; i < THREAD_AMOUNT; i++) {
+            concurrentArray.add(rand.nextInt(concurrentArray.size() + 1), first + i);
+            assertNotNull(concurrentArray.get(rand.nextInt(concurrentArray.size())));
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(failure.get());
+
+    // every element was added exactly once
+    List<Integer> sorted = new ArrayList<>(concurrentArray);
+    Collections.sort(sorted);
+    assertEquals(INITIAL_AMOUNT + THREADS * THREAD_AMOUNT, sorted.size());
+    for (int i = 0; i < sorted.size(); i++) {
+      assertEquals(i, (int) sorted.get(i));
+    }
+  }
+
+  @Test
+  public void testConcurrentMixed() throws InterruptedException {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[THREADS];
+    for (int t = 0; t < THREADS; t++) {
+      boolean reader = t % 2 == 0;
+      threads[t] = new Thread(() -> {
+        try {
+          ThreadLocalRandom rand = ThreadLocalRandom.current();
+          for (int i = 0; i < THREAD_AMOUNT; i++) {
+            if (reader) {
+              // the writers always add before they remove, so there are at least INITIAL_AMOUNT elements
+              assertNotNull(concurrentArray.get(rand.nextInt(INITIAL_AMOUNT)));
+            } else {
+              concurrentArray.add(rand.nextInt(INITIAL_AMOUNT), -1);
+              assertNotNull(concurrentArray.remove(rand.nextInt(INITIAL_AMOUNT)));
+            }
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(failure.get());
+    assertEquals(INITIAL_AMOUNT, concurrentArray.size());
+  }
+}
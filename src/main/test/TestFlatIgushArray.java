@@ -0,0 +1,137 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.junit.Before;
+import org.junit.Test;
+import stonet2000.igusharray.FlatIgushArray;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestFlatIgushArray {
+
+  static final int INITIAL_AMOUNT = 55; // amount of initial values in FlatIgushArray for testing
+  static final int ADD_AMOUNT = 150; // amount of values to add for testing
+  static final int RANGE = 1000; // range of values to add, namely [-RANGE/2, RANGE/2]
+
+  FlatIgushArray<Integer> flatArray;
+  List<Integer> truthList;
+
+  @Before
+  public void setUp() {
+    flatArray = new FlatIgushArray<>();
+    // this truthList should be the same as FlatIgushArray if we apply the same methods on them
+    truthList = new ArrayList<>();
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      flatArray.add(i);
+      truthList.add(i);
+    }
+  }
+
+  public int randInt() {
+    return (int) (Math.random() * RANGE - RANGE / 2);
+  }
+
+  public int randomIndexInList(List<?> list) {
+    return (int) (Math.random() * list.size());
+  }
+
+  @Test
+  public void testAdd() {
+    assertArrayEquals(truthList.toArray(), flatArray.toArray());
+    assertTrue(flatArray.capacity() >= INITIAL_AMOUNT);
+
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int value = randInt();
+      flatArray.add(index, value);
+      truthList.add(index, value);
+    }
+    assertArrayEquals(truthList.toArray(), flatArray.toArray());
+    assertEquals(truthList, flatArray);
+  }
+
+  @Test
+  public void testRemove() {
+    // remove front index for a quarter
+    for (int i = 0; i < INITIAL_AMOUNT / 4; i++) {
+      assertEquals(truthList.remove(0), flatArray.remove(0));
+    }
+    // remove end index for a quarter
+    for (int i = 0; i < INITIAL_AMOUNT / 4; i++) {
+      assertEquals(truthList.remove(truthList.size() - 1), flatArray.remove(flatArray.size() - 1));
+    }
+    assertArrayEquals(truthList.toArray(), flatArray.toArray());
+
+    // remove random index until none left
+    while (truthList.size() != 0) {
+      int index = randomIndexInList(truthList);
+      assertEquals(truthList.remove(index), flatArray.remove(index));
+    }
+    assertTrue(flatArray.isEmpty());
+  }
+
+  @Test
+  public void testSet() {
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      assertEquals(truthList.set(index, i * 2), flatArray.set(index, i * 2));
+    }
+    assertArrayEquals(truthList.toArray(), flatArray.toArray());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    flatArray.get(INITIAL_AMOUNT);
+  }
+
+  @Test
+  public void testCapacity() {
+    flatArray.ensureCapacity(INITIAL_AMOUNT * 10);
+    assertTrue(flatArray.capacity() >= INITIAL_AMOUNT * 10);
+    assertArrayEquals(truthList.toArray(), flatArray.toArray());
+
+    flatArray.trimToSize();
+    assertTrue(flatArray.capacity() < INITIAL_AMOUNT * 10);
+    assertArrayEquals(truthList.toArray(), flatArray.toArray());
+
+    flatArray.clear();
+    assertTrue(flatArray.isEmpty());
+    flatArray.add(1);
+    assertEquals((Integer) 1, flatArray.get(0));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testClone() {
+    FlatIgushArray<Integer> copy = (FlatIgushArray<Integer>) flatArray.clone();
+    copy.add(0, -1);
+    copy.remove(INITIAL_AMOUNT / 2);
+    // changes to the clone should not leak into the original
+    assertArrayEquals(truthList.toArray(), flatArray.toArray());
+  }
+}
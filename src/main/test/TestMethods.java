@@ -27,8 +27,25 @@ package test;
 import org.junit.Before;
 import org.junit.Test;
 import stonet2000.igusharray.IgushArray;
+import stonet2000.igusharray.IgushArrayMonitor;
+import stonet2000.igusharray.IgushArrayStats;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -85,7 +102,7 @@ public class TestMethods {
    * @param list
    * @return
    */
-  public int randomIndexInList(List list) {
+  public int randomIndexInList(List<?> list) {
     return (int) (Math.random() * list.size());
   }
 
@@ -145,11 +162,706 @@ public class TestMethods {
     assertArrayEquals(igushArray.toArray(), truthList.toArray());
   }
 
+  @Test
+  public void testDeque() {
+    Deque<Integer> deque = (IgushArray<Integer>) igushArray;
+    Deque<Integer> truthDeque = new ArrayDeque<>(truthList);
+
+    // pushes and pops at both ends, with more pushes at the front so that deques move to the front of the IgushArray
+    for (int i = 0; i < ADD_AMOUNT * 10; i++) {
+      int value = randInt();
+      switch ((int) (Math.random() * 5)) {
+        case 0:
+        case 1:
+          deque.addFirst(value);
+          truthDeque.addFirst(value);
+          break;
+        case 2:
+          deque.addLast(value);
+          truthDeque.addLast(value);
+          break;
+        case 3:
+          assertEquals(truthDeque.pollFirst(), deque.pollFirst());
+          break;
+        default:
+          assertEquals(truthDeque.pollLast(), deque.pollLast());
+      }
+      assertEquals(truthDeque.peekFirst(), deque.peekFirst());
+      assertEquals(truthDeque.peekLast(), deque.peekLast());
+    }
+    assertArrayEquals(truthDeque.toArray(), deque.toArray());
+
+    List<Integer> descending = new ArrayList<>();
+    deque.descendingIterator().forEachRemaining(descending::add);
+    List<Integer> truthDescending = new ArrayList<>();
+    truthDeque.descendingIterator().forEachRemaining(truthDescending::add);
+    assertEquals(truthDescending, descending);
+
+    while (!truthDeque.isEmpty()) {
+      assertEquals(truthDeque.pop(), deque.pop());
+    }
+    assertNull(deque.pollFirst());
+    assertNull(deque.peekLast());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testDequeEmpty() {
+    new IgushArray<Integer>().removeFirst();
+  }
+
+  @Test
+  public void testFrontSlots() {
+    // after pushes and pops at the front, the first deque is only partly filled
+    IgushArray<Integer> deque = new IgushArray<>(1000);
+    for (int i = 0; i < 500; i++) {
+      deque.add(i);
+      truthList.add(i);
+    }
+    truthList.subList(0, INITIAL_AMOUNT).clear();
+    for (int i = 0; i < 37; i++) {
+      deque.addFirst(-i);
+      truthList.add(0, -i);
+    }
+    for (int i = 0; i < 5; i++) {
+      deque.pollFirst();
+      truthList.remove(0);
+    }
+    List<Integer> snapshot = deque.snapshot();
+    List<Integer> expected = new ArrayList<>(truthList);
+
+    // every operation maps its indices past the free slots
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int value = randInt();
+      deque.add(index, value);
+      truthList.add(index, value);
+      index = randomIndexInList(truthList);
+      assertEquals(truthList.remove(index), deque.remove(index));
+    }
+    assertEquals(truthList, deque);
+    deque.addAll(3, Arrays.asList(1, 2, 3));
+    truthList.addAll(3, Arrays.asList(1, 2, 3));
+    deque.subList(10, 40).clear();
+    truthList.subList(10, 40).clear();
+    assertEquals(truthList, deque);
+    assertEquals(truthList, deque.stream().collect(Collectors.toList()));
+    deque.removeIf(i -> i % 3 == 0);
+    truthList.removeIf(i -> i % 3 == 0);
+    assertEquals(truthList, deque);
+    assertEquals(expected, snapshot);
+  }
+
+  @Test
+  public void testGetAndSetAfterFrontRemovals() {
+    for (boolean powerOfTwoBlocks : new boolean[]{false, true}) {
+      IgushArray<Integer> list = new IgushArray<>(1000, powerOfTwoBlocks);
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < 700; i++) {
+        list.add(i);
+        expected.add(i);
+      }
+      // removes in the front half leave free slots at the front of the first deque
+      for (int i = 0; i < 45; i++) {
+        int index = randomIndexInList(expected) / 2;
+        assertEquals(expected.remove(index), list.remove(index));
+      }
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals(expected.get(i), list.get(i));
+      }
+      for (int i = 0; i < expected.size(); i += 3) {
+        assertEquals(expected.set(i, -i), list.set(i, -i));
+      }
+      assertEquals(expected, list);
+      list.addFirst(-1);
+      expected.add(0, -1);
+      assertEquals(-1, (int) list.get(0));
+      assertEquals(expected.get(expected.size() - 1), list.get(list.size() - 1));
+      assertEquals(expected, list);
+    }
+  }
+
   @Test
   public void testInitialization() {
       igushArray = new IgushArray<>(100);
   }
 
+  @Test
+  public void testPowerOfTwoBlocks() {
+    igushArray = new IgushArray<>(INITIAL_AMOUNT, true);
+    truthList = new ArrayList<>();
+    assertTrue(((IgushArray<Integer>) igushArray).capacity() >= INITIAL_AMOUNT);
+
+    // grows past the initial capacity, so the deques are resized and stay powers of two
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int value = randInt();
+      igushArray.add(index, value);
+      truthList.add(index, value);
+    }
+    assertArrayEquals(igushArray.toArray(), truthList.toArray());
+
+    for (int i = 0; i < ADD_AMOUNT / 2; i++) {
+      int index = randomIndexInList(truthList);
+      assertEquals(truthList.remove(index), igushArray.remove(index));
+      index = randomIndexInList(truthList);
+      assertEquals(truthList.set(index, i), igushArray.set(index, i));
+    }
+    assertArrayEquals(igushArray.toArray(), truthList.toArray());
+  }
+
+  @Test
+  public void testIncrementalGrowth() {
+    for (boolean powerOfTwoBlocks : new boolean[]{false, true}) {
+      igushArray = new IgushArray<>(10, powerOfTwoBlocks, true);
+      truthList = new ArrayList<>();
+
+      // grows many times, with inserts and removes landing on both sides of the elements being migrated
+      for (int i = 0; i < ADD_AMOUNT * 20; i++) {
+        int value = randInt();
+        int index = randomIndexInList(truthList);
+        if (i % 5 == 4) {
+          assertEquals(truthList.remove(index), igushArray.remove(index));
+        } else if (i % 2 == 0) {
+          igushArray.add(index, value);
+          truthList.add(index, value);
+        } else {
+          igushArray.add(value);
+          truthList.add(value);
+        }
+        index = randomIndexInList(truthList);
+        assertEquals(truthList.get(index), igushArray.get(index));
+      }
+      assertArrayEquals(truthList.toArray(), igushArray.toArray());
+
+      // methods working on the whole IgushArray finish growing first
+      ((IgushArray<Integer>) igushArray).ensureCapacity(((IgushArray<Integer>) igushArray).capacity() * 2);
+      igushArray.removeIf(i -> i < 0);
+      truthList.removeIf(i -> i < 0);
+      assertArrayEquals(truthList.toArray(), igushArray.toArray());
+    }
+  }
+
+  @Test
+  public void testTrimToSize() {
+    IgushArray<Integer> trimmed = new IgushArray<>(ADD_AMOUNT * 10);
+    trimmed.addAll(truthList);
+    trimmed.trimToSize();
+    assertEquals(truthList.size(), trimmed.capacity());
+    assertArrayEquals(truthList.toArray(), trimmed.toArray());
+
+    // still grows after trimming
+    populateListWithIntegers(truthList);
+    for (int i = INITIAL_AMOUNT; i < truthList.size(); i++) {
+      trimmed.add(truthList.get(i));
+    }
+    assertArrayEquals(truthList.toArray(), trimmed.toArray());
+
+    trimmed.clear();
+    trimmed.trimToSize();
+    assertEquals(1, trimmed.capacity());
+    trimmed.add(1);
+    assertEquals((Integer) 1, trimmed.get(0));
+  }
+
+  @Test
+  public void testAutoShrink() {
+    IgushArray<Integer> shrinking = new IgushArray<>();
+    shrinking.setAutoShrink(true);
+    for (int i = 0; i < ADD_AMOUNT * 20; i++) {
+      shrinking.add(i);
+    }
+    int grownCapacity = shrinking.capacity();
+
+    // removing most elements shrinks it, but never to less than a quarter used
+    while (shrinking.size() > INITIAL_AMOUNT) {
+      shrinking.remove(randomIndexInList(shrinking));
+      assertTrue(shrinking.size() >= shrinking.capacity() / 4 || shrinking.capacity() <= 16);
+    }
+    assertTrue(shrinking.capacity() < grownCapacity);
+
+    // right after shrinking, adding and removing a few elements does not resize again
+    int capacity = shrinking.capacity();
+    for (int i = 0; i < INITIAL_AMOUNT / 2; i++) {
+      shrinking.add(i);
+      shrinking.remove(0);
+    }
+    assertEquals(capacity, shrinking.capacity());
+  }
+
+  @Test
+  public void testBlockRatio() {
+    IgushArray<Integer> larger = new IgushArray<>(10000, 4.0);
+    assertEquals(400, larger.data.get(0).capacity());
+    IgushArray<Integer> smaller = new IgushArray<>(10000, 0.5);
+    assertEquals(50, smaller.data.get(0).capacity());
+
+    // the ratio is kept when growing
+    for (int i = 0; i < 40000; i++) {
+      smaller.add(randomIndexInList(smaller), i);
+    }
+    int deqCapacity = (int) (Math.sqrt(smaller.capacity()) * 0.5);
+    assertEquals(deqCapacity, smaller.data.get(0).capacity());
+  }
+
+  @Test
+  public void testAdaptiveBlocks() {
+    IgushArray<Integer> adaptive = new IgushArray<>(10000);
+    populateListWithIntegers(truthList);
+    adaptive.addAll(truthList);
+    adaptive.setAdaptiveBlocks(true);
+    int deqCapacity = adaptive.data.get(0).capacity();
+
+    // iterating over the whole list for every insert makes larger FixedDeques worth it
+    for (int i = 0; i < 10; i++) {
+      int index = randomIndexInList(truthList);
+      adaptive.add(index, i);
+      truthList.add(index, i);
+      Iterator<Integer> itr = adaptive.iterator();
+      for (Integer element : truthList) {
+        assertEquals(element, itr.next());
+      }
+    }
+    adaptive.retune();
+    assertTrue(adaptive.blockRatio() > 1);
+    assertTrue(adaptive.data.get(0).capacity() > deqCapacity);
+    assertEquals(truthList, adaptive);
+
+    // with only inserts and removes the ratio given at construction comes back
+    adaptive.setAdaptiveBlocks(true);
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      assertEquals(truthList.remove(index), adaptive.remove(index));
+      adaptive.add(index, i);
+      truthList.add(index, i);
+    }
+    adaptive.retune();
+    assertEquals(1, adaptive.blockRatio(), 0.01);
+    assertEquals(truthList, adaptive);
+  }
+
+  @Test
+  public void testAdaptiveBlocksRandomGet() {
+    IgushArray<Integer> adaptive = new IgushArray<>(10000);
+    populateListWithIntegers(truthList);
+    adaptive.addAll(truthList);
+    adaptive.setAdaptiveBlocks(true);
+
+    // get by index costs the same whatever the FixedDeque capacity, so only the inserts count
+    for (int i = 0; i < 10; i++) {
+      int index = randomIndexInList(truthList);
+      adaptive.add(index, i);
+      truthList.add(index, i);
+      for (int j = 0; j < adaptive.size(); j++) {
+        index = randomIndexInList(truthList);
+        assertEquals(truthList.get(index), adaptive.get(index));
+      }
+    }
+    adaptive.retune();
+    assertEquals(1, adaptive.blockRatio(), 0.01);
+    assertEquals(truthList, adaptive);
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    IgushArray<Integer> measured = new IgushArray<>(100);
+    assertFalse(measured.stats().isMetricsEnabled());
+    measured.setMetricsEnabled(true);
+    for (int i = 0; i < 1000; i++) {
+      measured.add(measured.size() / 2, i);
+    }
+    measured.addAll(Arrays.asList(1, 2, 3));
+    for (int i = 0; i < 10; i++) {
+      measured.remove(measured.size() * 2 / 3);
+    }
+    measured.removeIf(i -> i < 0);
+
+    IgushArrayStats stats = measured.stats();
+    assertEquals(1003, stats.getInserts());
+    assertEquals(10, stats.getRemoves());
+    assertEquals(measured.size(), stats.getSize());
+    assertEquals(measured.capacity(), stats.getCapacity());
+    assertTrue(stats.getCascades() > 0);
+    assertTrue(stats.getMeanCascadeLength() >= 1);
+    assertTrue(stats.getResizes() > 0);
+    assertTrue(stats.getElementsCopied() > 0);
+    assertTrue(stats.getDequeFillRatio() > 0 && stats.getDequeFillRatio() <= 1);
+
+    // the same numbers can be read over JMX
+    ObjectName name = IgushArrayMonitor.register(measured, "test:type=IgushArray,name=testMetrics");
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(measured.size(), server.getAttribute(name, "Size"));
+      assertEquals(1003L, server.getAttribute(name, "Inserts"));
+    } finally {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+
+    measured.setMetricsEnabled(false);
+    assertEquals(0, measured.stats().getInserts());
+  }
+
+  @Test
+  public void testFlightRecorderEvents() throws Exception {
+    Path file = Files.createTempFile("igusharray", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("stonet2000.igusharray.Resize");
+      recording.enable("stonet2000.igusharray.BulkOperation").withThreshold(Duration.ZERO);
+      recording.start();
+      IgushArray<Integer> recorded = new IgushArray<>(10);
+      for (int i = 0; i < 1000; i++) {
+        recorded.add(i);
+      }
+      recorded.removeIf(i -> i % 2 == 0);
+      recorded.trimToSize();
+      recording.stop();
+      recording.dump(file);
+    }
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Files.delete(file);
+
+    int grows = 0;
+    int trims = 0;
+    int bulkOperations = 0;
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals("stonet2000.igusharray.Resize")) {
+        if (event.getString("cause").equals("grow")) {
+          grows++;
+          assertTrue(event.getInt("newCapacity") > event.getInt("oldCapacity"));
+        } else {
+          trims++;
+          assertEquals("trim", event.getString("cause"));
+          assertEquals(500, event.getInt("newCapacity"));
+        }
+      } else if (event.getEventType().getName().equals("stonet2000.igusharray.BulkOperation")) {
+        bulkOperations++;
+        assertEquals("removeIf", event.getString("operation"));
+        assertEquals(500, event.getInt("elements"));
+      }
+    }
+    assertTrue(grows > 0);
+    assertEquals(1, trims);
+    assertEquals(1, bulkOperations);
+  }
+
+  @Test
+  public void testListIterator() {
+    populateListWithIntegers(truthList);
+    igushArray = new IgushArray<>(truthList);
+
+    // walks forwards and backwards across the deques
+    ListIterator<Integer> itr = igushArray.listIterator(truthList.size() / 2);
+    ListIterator<Integer> truthItr = truthList.listIterator(truthList.size() / 2);
+    while (truthItr.hasNext()) {
+      assertEquals(truthItr.next(), itr.next());
+    }
+    assertFalse(itr.hasNext());
+    while (truthItr.hasPrevious()) {
+      assertEquals(truthItr.previousIndex(), itr.previousIndex());
+      assertEquals(truthItr.previous(), itr.previous());
+    }
+
+    // changes made through the iterator
+    while (truthItr.hasNext()) {
+      int value = truthItr.next();
+      assertEquals((Integer) value, itr.next());
+      if (value % 2 == 0) {
+        truthItr.remove();
+        itr.remove();
+      } else if (value % 3 == 0) {
+        truthItr.add(value);
+        itr.add(value);
+      } else {
+        truthItr.set(-value);
+        itr.set(-value);
+      }
+    }
+    assertArrayEquals(truthList.toArray(), igushArray.toArray());
+
+    List<Integer> seen = new ArrayList<>();
+    igushArray.forEach(seen::add);
+    assertEquals(truthList, seen);
+  }
+
+  @Test
+  public void testSpliterator() {
+    populateListWithIntegers(truthList);
+    igushArray = new IgushArray<>(truthList);
+
+    assertEquals(truthList, igushArray.parallelStream().collect(Collectors.toList()));
+    assertEquals(truthList.stream().mapToLong(i -> i).sum(), igushArray.parallelStream().mapToLong(i -> i).sum());
+
+    // splits cover the whole list in order, and a split falls between deques
+    Spliterator<Integer> second = igushArray.spliterator();
+    assertTrue(second.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+    Spliterator<Integer> first = second.trySplit();
+    long firstSize = first.estimateSize();
+    assertEquals(truthList.size(), firstSize + second.estimateSize());
+    List<Integer> seen = new ArrayList<>();
+    first.forEachRemaining(seen::add);
+    assertTrue(second.tryAdvance(seen::add));
+    second.forEachRemaining(seen::add);
+    assertEquals(truthList, seen);
+    IgushArray<Integer> deques = (IgushArray<Integer>) igushArray;
+    assertEquals(0, firstSize % deques.data.get(0).capacity());
+  }
+
+  @Test
+  public void testSort() {
+    populateListWithIntegers(truthList);
+    igushArray = new IgushArray<>(truthList);
+    // rotate the rings so that the deques do not start at their head
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      igushArray.add(0, igushArray.remove(igushArray.size() - 1));
+      truthList.add(0, truthList.remove(truthList.size() - 1));
+    }
+
+    igushArray.sort(null);
+    truthList.sort(null);
+    assertEquals(truthList, igushArray);
+
+    igushArray.sort(Comparator.reverseOrder());
+    truthList.sort(Comparator.reverseOrder());
+    assertEquals(truthList, igushArray);
+
+    IgushArray<Integer> deques = (IgushArray<Integer>) igushArray;
+    deques.parallelSort(Comparator.naturalOrder());
+    truthList.sort(Comparator.naturalOrder());
+    assertEquals(truthList, igushArray);
+  }
+
+  @Test
+  public void testSnapshot() {
+    populateListWithIntegers(truthList);
+    igushArray = new IgushArray<>(truthList);
+    List<Integer> snapshot = ((IgushArray<Integer>) igushArray).snapshot();
+    List<Integer> expected = new ArrayList<>(truthList);
+
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int value = randInt();
+      igushArray.add(index, value);
+      truthList.add(index, value);
+      index = randomIndexInList(truthList);
+      igushArray.set(index, i);
+      truthList.set(index, i);
+    }
+    igushArray.removeIf(i -> i % 3 == 0);
+    truthList.removeIf(i -> i % 3 == 0);
+    igushArray.sort(null);
+    truthList.sort(null);
+    assertEquals(truthList, igushArray);
+    assertEquals(expected, snapshot);
+    assertArrayEquals(expected.toArray(), snapshot.toArray());
+
+    igushArray.clear();
+    assertEquals(expected, snapshot);
+  }
+
+  @Test
+  public void testIteratorSeesCopyOnWrite() {
+    IgushArray<Integer> list = new IgushArray<>();
+    for (int i = 0; i < 100; i++) {
+      list.add(i);
+    }
+    List<Integer> snapshot = list.snapshot();
+    Iterator<Integer> itr = list.iterator();
+    assertEquals(0, (int) itr.next());
+    list.set(1, -1);
+    assertEquals(-1, (int) itr.next());
+
+    // the action copies the shared deque it is reading part way through
+    list = new IgushArray<>(snapshot);
+    IgushArray<Integer> clone = (IgushArray<Integer>) list.clone();
+    List<Integer> seen = new ArrayList<>();
+    IgushArray<Integer> target = list;
+    list.forEach(e -> {
+      if (e == 0)
+        target.set(1, -1);
+      seen.add(e);
+    });
+    assertEquals(list, seen);
+
+    seen.clear();
+    list.set(1, 1);
+    list.snapshot();
+    list.spliterator().forEachRemaining(e -> {
+      if (e == 0)
+        target.set(1, -1);
+      seen.add(e);
+    });
+    assertEquals(list, seen);
+    assertEquals(1, (int) clone.get(1));
+    assertEquals(1, (int) snapshot.get(1));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSnapshotImmutable() {
+    ((IgushArray<Integer>) igushArray).snapshot().set(0, 1);
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> T roundTrip(T object) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (T) in.readObject();
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSerialization() throws Exception {
+    assertEquals(new IgushArray<Integer>(), roundTrip(new IgushArray<Integer>()));
+
+    IgushArray<Integer> list = new IgushArray<>(10, true, true);
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      list.add(i);
+      expected.add(i);
+    }
+    // free slots at the front, a migration in progress and a shared clone are not part of the serialized form
+    list.pollFirst();
+    expected.remove(0);
+    IgushArray<Integer> clone = (IgushArray<Integer>) list.clone();
+    IgushArray<Integer> copy = roundTrip(list);
+    assertEquals(expected, copy);
+    assertEquals(list.capacity(), copy.capacity());
+
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(expected);
+      copy.add(index, -i);
+      expected.add(index, -i);
+      copy.addFirst(i);
+      expected.add(0, i);
+    }
+    assertEquals(expected, copy);
+    assertEquals(list, clone);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testClone() {
+    IgushArray<Integer> clone = (IgushArray<Integer>) ((IgushArray<Integer>) igushArray).clone();
+    List<Integer> cloneTruth = new ArrayList<>(truthList);
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      igushArray.add(index, i);
+      truthList.add(index, i);
+      index = randomIndexInList(cloneTruth);
+      assertEquals(cloneTruth.remove(index), clone.remove(index));
+      clone.add(0, -i);
+      cloneTruth.add(0, -i);
+    }
+    assertEquals(truthList, igushArray);
+    assertEquals(cloneTruth, clone);
+  }
+
+  @Test
+  public void testToArray() {
+    populateListWithIntegers(truthList);
+    igushArray = new IgushArray<>(truthList);
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      igushArray.add(0, igushArray.remove(igushArray.size() - 1));
+      truthList.add(0, truthList.remove(truthList.size() - 1));
+    }
+    assertArrayEquals(truthList.toArray(), igushArray.toArray());
+
+    // a typed array that is too small is replaced, and one that is too large gets a null after the elements
+    Integer[] small = igushArray.toArray(new Integer[0]);
+    assertArrayEquals(truthList.toArray(new Integer[0]), small);
+    Integer[] large = new Integer[truthList.size() + 2];
+    Arrays.fill(large, -1);
+    assertSame(large, igushArray.toArray(large));
+    assertNull(large[truthList.size()]);
+    assertEquals(-1, (int) large[truthList.size() + 1]);
+
+    Object[] window = new Object[ADD_AMOUNT];
+    ((IgushArray<Integer>) igushArray).copyTo(INITIAL_AMOUNT, window, 1, ADD_AMOUNT - 1);
+    assertArrayEquals(truthList.subList(INITIAL_AMOUNT, INITIAL_AMOUNT + ADD_AMOUNT - 1).toArray(),
+        Arrays.copyOfRange(window, 1, ADD_AMOUNT));
+    assertArrayEquals(truthList.subList(3, 40).toArray(new Integer[0]), igushArray.subList(3, 40).toArray(new Integer[0]));
+  }
+
+  @Test(expected = ArrayStoreException.class)
+  public void testToArrayStore() {
+    igushArray.toArray(new String[0]);
+  }
+
+  @Test
+  public void testSubList() {
+    populateListWithIntegers(truthList);
+    igushArray = new IgushArray<>(truthList);
+    int from = INITIAL_AMOUNT / 2;
+    int to = truthList.size() - INITIAL_AMOUNT / 2;
+    List<Integer> igushSub = igushArray.subList(from, to);
+    List<Integer> truthSub = truthList.subList(from, to);
+    assertEquals(truthSub, igushSub);
+
+    // writes go through to the IgushArray
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthSub);
+      int value = randInt();
+      igushSub.add(index, value);
+      truthSub.add(index, value);
+      index = randomIndexInList(truthSub);
+      assertEquals(truthSub.remove(index), igushSub.remove(index));
+      index = randomIndexInList(truthSub);
+      assertEquals(truthSub.set(index, value), igushSub.set(index, value));
+    }
+    assertEquals(truthSub, igushSub);
+    assertEquals(truthList, igushArray);
+
+    // a view of a view, and iterating over both
+    List<Integer> igushInner = igushSub.subList(1, igushSub.size() - 1);
+    List<Integer> truthInner = truthSub.subList(1, truthSub.size() - 1);
+    igushInner.addAll(2, truthInner.subList(0, 10));
+    truthInner.addAll(2, truthInner.subList(0, 10));
+    ListIterator<Integer> itr = igushInner.listIterator();
+    ListIterator<Integer> truthItr = truthInner.listIterator();
+    while (itr.hasNext()) {
+      int value = itr.next();
+      assertEquals(truthItr.next(), (Integer) value);
+      if (value % 2 == 0) {
+        itr.remove();
+        truthItr.remove();
+      }
+    }
+    assertEquals(truthInner, igushInner);
+    assertEquals(truthInner.stream().collect(Collectors.toList()), igushInner.stream().collect(Collectors.toList()));
+    assertEquals(truthSub.size(), igushSub.size());
+
+    igushInner.clear();
+    truthInner.clear();
+    assertEquals(truthSub, igushSub);
+    assertEquals(truthList, igushArray);
+  }
+
+  @Test(expected = ConcurrentModificationException.class)
+  public void testSubListFailFast() {
+    List<Integer> sub = igushArray.subList(1, 10);
+    igushArray.add(0, -1);
+    sub.get(0);
+  }
+
+  @Test(expected = ConcurrentModificationException.class)
+  public void testIteratorFailFast() {
+    for (Integer i : igushArray) {
+      if (i == INITIAL_AMOUNT / 2) {
+        igushArray.remove(0);
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testIteratorRemoveTwice() {
+    Iterator<Integer> itr = igushArray.iterator();
+    itr.next();
+    itr.remove();
+    itr.remove();
+  }
+
   @Test
   public void testAddAll() {
     assertFalse(igushArray.addAll(new ArrayList<>()));
@@ -185,6 +897,21 @@ public class TestMethods {
 
   }
 
+  @Test
+  public void testAddAllInMiddle() {
+    // batches both smaller and larger than a deque, spliced at random positions
+    for (int size = 1; size <= ADD_AMOUNT; size *= 3) {
+      ArrayList<Integer> list = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        list.add(randInt());
+      }
+      int index = randomIndexInList(truthList);
+      assertTrue(igushArray.addAll(index, list));
+      truthList.addAll(index, list);
+      assertArrayEquals(igushArray.toArray(), truthList.toArray());
+    }
+  }
+
   @Test
   public void testRemoveAll() {
     assertFalse(igushArray.removeAll(new HashSet<>()));
@@ -225,6 +952,34 @@ public class TestMethods {
     assertTrue(igushArray.isEmpty());
   }
 
+  @Test
+  public void testRemoveIf() {
+    populateListWithIntegers(truthList);
+    igushArray.clear();
+    igushArray.addAll(truthList);
+    assertFalse(igushArray.removeIf(i -> i > RANGE));
+
+    assertTrue(igushArray.removeIf(i -> i % 3 == 0));
+    truthList.removeIf(i -> i % 3 == 0);
+    assertArrayEquals(truthList.toArray(), igushArray.toArray());
+
+    // the list is unchanged if the predicate throws
+    try {
+      igushArray.removeIf(i -> {
+        throw new IllegalStateException();
+      });
+      fail();
+    } catch (IllegalStateException e) {
+      assertArrayEquals(truthList.toArray(), igushArray.toArray());
+    }
+
+    // everything is removed, and the list can be refilled
+    assertTrue(igushArray.removeIf(i -> true));
+    assertTrue(igushArray.isEmpty());
+    igushArray.addAll(truthList);
+    assertArrayEquals(truthList.toArray(), igushArray.toArray());
+  }
+
   @Test
   public void testContainsAll() {
     HashSet<Integer> hs = new HashSet<>();
@@ -235,22 +990,42 @@ public class TestMethods {
     assertFalse(igushArray.containsAll(hs));
   }
 
-  // Make removeRange public to use this test. (Don't forget to re-protect it after!)
-    /*
-    @Test
-    public void testRemoveRange() {
-        igushArray.removeRange(0, 5); //should remove items at indices 0-4 (remove everything)
-        assertTrue(igushArray.isEmpty());
+  // exposes the protected removeRange for testing
+  static class RangeIgushArray<E> extends IgushArray<E> {
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+      super.removeRange(fromIndex, toIndex);
+    }
+  }
 
-        for (int i = 0; i < 9; i++) {
-            igushArray.add(i);
-        }
+  @Test
+  public void testRemoveRange() {
+    RangeIgushArray<Integer> rangeArray = new RangeIgushArray<>();
+    for (int i = 0; i < 5; i++) {
+      rangeArray.add(i);
+    }
+    rangeArray.removeRange(0, 5); //should remove items at indices 0-4 (remove everything)
+    assertTrue(rangeArray.isEmpty());
 
-        igushArray.removeRange(2, 7); //remove 2,3,4,5,6
-        assertTrue(igushArray.contains(0));
-        assertTrue(igushArray.contains(1));
-        assertTrue(igushArray.contains(7));
-        assertTrue(igushArray.contains(8));
+    for (int i = 0; i < 9; i++) {
+      rangeArray.add(i);
     }
-    */
+
+    rangeArray.removeRange(2, 7); //remove 2,3,4,5,6
+    assertArrayEquals(new Integer[]{0, 1, 7, 8}, rangeArray.toArray());
+
+    // ranges both smaller and larger than a deque
+    rangeArray.clear();
+    truthList.clear();
+    for (int i = 0; i < ADD_AMOUNT * 3; i++) {
+      rangeArray.add(i);
+      truthList.add(i);
+    }
+    for (int length = 1; length <= ADD_AMOUNT; length *= 3) {
+      int fromIndex = randomIndexInList(truthList.subList(length, truthList.size()));
+      rangeArray.removeRange(fromIndex, fromIndex + length);
+      truthList.subList(fromIndex, fromIndex + length).clear();
+      assertArrayEquals(truthList.toArray(), rangeArray.toArray());
+    }
+  }
 }
@@ -0,0 +1,191 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import stonet2000.igusharray.MappedIgushArray;
+import stonet2000.igusharray.OffHeapIgushArray;
+import stonet2000.igusharray.RecordCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestOffHeapIgushArray {
+
+  static final int INITIAL_AMOUNT = 55; // amount of initial values in OffHeapIgushArray for testing
+  static final int ADD_AMOUNT = 150; // amount of values to add for testing
+  static final int RANGE = 1000; // range of values to add, namely [-RANGE/2, RANGE/2]
+
+  // a 16 byte record of two longs, stored as a long[] of length 2
+  static final RecordCodec<long[]> PAIR = new RecordCodec<long[]>() {
+    @Override
+    public int recordSize() {
+      return 16;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset, long[] element) {
+      buffer.putLong(offset, element[0]);
+      buffer.putLong(offset + 8, element[1]);
+    }
+
+    @Override
+    public long[] read(ByteBuffer buffer, int offset) {
+      return new long[]{buffer.getLong(offset), buffer.getLong(offset + 8)};
+    }
+  };
+
+  OffHeapIgushArray<Integer> offHeapArray;
+  List<Integer> truthList;
+
+  @Before
+  public void setUp() {
+    offHeapArray = new OffHeapIgushArray<>(RecordCodec.INT, 10);
+    // this truthList should be the same as OffHeapIgushArray if we apply the same methods on them
+    truthList = new ArrayList<>();
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      offHeapArray.add(i);
+      truthList.add(i);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    offHeapArray.close();
+  }
+
+  public int randInt() {
+    return (int) (Math.random() * RANGE - RANGE / 2);
+  }
+
+  public int randomIndexInList(List<?> list) {
+    return (int) (Math.random() * list.size());
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int value = randInt();
+      offHeapArray.add(index, value);
+      truthList.add(index, value);
+    }
+    assertEquals(truthList, offHeapArray);
+
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      assertEquals(truthList.remove(index), offHeapArray.remove(index));
+      index = randomIndexInList(truthList);
+      assertEquals(truthList.set(index, i), offHeapArray.set(index, i));
+    }
+    assertEquals(truthList, offHeapArray);
+  }
+
+  @Test
+  public void testCapacity() {
+    long bytes = offHeapArray.offHeapBytes();
+    assertEquals((long) offHeapArray.capacity() * Integer.BYTES, bytes);
+    offHeapArray.ensureCapacity(INITIAL_AMOUNT * 10);
+    assertTrue(offHeapArray.offHeapBytes() > bytes);
+    assertEquals(truthList, offHeapArray);
+
+    offHeapArray.trimToSize();
+    assertTrue(offHeapArray.capacity() < INITIAL_AMOUNT * 10);
+    assertEquals(truthList, offHeapArray);
+
+    offHeapArray.clear();
+    assertTrue(offHeapArray.isEmpty());
+  }
+
+  @Test
+  public void testRecords() {
+    try (OffHeapIgushArray<long[]> pairs = new OffHeapIgushArray<>(PAIR, 4)) {
+      for (int i = 0; i < ADD_AMOUNT; i++) {
+        pairs.add(0, new long[]{i, -i});
+      }
+      for (int i = 0; i < ADD_AMOUNT; i++) {
+        assertArrayEquals(new long[]{ADD_AMOUNT - 1 - i, i + 1 - ADD_AMOUNT}, pairs.get(i));
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosed() {
+    offHeapArray.close();
+    assertEquals(0, offHeapArray.offHeapBytes());
+    offHeapArray.get(0);
+  }
+
+  @Test
+  public void testMapped() throws IOException {
+    Path file = Files.createTempFile("igush", ".bin");
+    truthList.clear();
+    try {
+      try (MappedIgushArray<Integer> mapped = MappedIgushArray.create(file, RecordCodec.INT, 10)) {
+        for (int i = 0; i < ADD_AMOUNT; i++) {
+          int index = randomIndexInList(truthList);
+          int value = randInt();
+          mapped.add(index, value);
+          truthList.add(index, value);
+        }
+        for (int i = 0; i < INITIAL_AMOUNT; i++) {
+          int index = randomIndexInList(truthList);
+          assertEquals(truthList.remove(index), mapped.remove(index));
+        }
+        assertEquals(truthList, mapped);
+        mapped.force();
+      }
+      try (MappedIgushArray<Integer> mapped = MappedIgushArray.open(file, RecordCodec.INT)) {
+        assertEquals(truthList, mapped);
+        mapped.trimToSize();
+        mapped.add(0, -1);
+        truthList.add(0, -1);
+      }
+      try (MappedIgushArray<Integer> mapped = MappedIgushArray.open(file, RecordCodec.INT)) {
+        assertEquals(truthList, mapped);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMappedRecordSize() throws IOException {
+    Path file = Files.createTempFile("igush", ".bin");
+    try {
+      MappedIgushArray.create(file, RecordCodec.INT, 10).close();
+      MappedIgushArray.open(file, PAIR);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.junit.Before;
+import org.junit.Test;
+import stonet2000.igusharray.DoubleIgushArray;
+import stonet2000.igusharray.IntIgushArray;
+import stonet2000.igusharray.LongIgushArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestPrimitiveIgushArrays {
+
+  static final int INITIAL_AMOUNT = 55; // amount of initial values in the arrays for testing
+  static final int ADD_AMOUNT = 150; // amount of values to add for testing
+  static final int RANGE = 1000; // range of values to add, namely [-RANGE/2, RANGE/2]
+
+  IntIgushArray intArray;
+  LongIgushArray longArray;
+  DoubleIgushArray doubleArray;
+  List<Integer> truthList;
+
+  @Before
+  public void setUp() {
+    intArray = new IntIgushArray();
+    longArray = new LongIgushArray();
+    doubleArray = new DoubleIgushArray();
+    // the arrays should hold the same values as truthList if we apply the same methods on them
+    truthList = new ArrayList<>();
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      intArray.addInt(i);
+      longArray.addLong(i);
+      doubleArray.addDouble(i);
+      truthList.add(i);
+    }
+  }
+
+  public int randInt() {
+    return (int) (Math.random() * RANGE - RANGE / 2);
+  }
+
+  public int randomIndexInList(List<?> list) {
+    return (int) (Math.random() * list.size());
+  }
+
+  private void assertSameValues() {
+    assertEquals(truthList.size(), intArray.size());
+    assertEquals(truthList.size(), longArray.size());
+    assertEquals(truthList.size(), doubleArray.size());
+    int[] ints = intArray.toArray();
+    long[] longs = longArray.toArray();
+    double[] doubles = doubleArray.toArray();
+    for (int i = 0; i < truthList.size(); i++) {
+      int expected = truthList.get(i);
+      assertEquals(expected, intArray.getInt(i));
+      assertEquals(expected, longArray.getLong(i));
+      assertEquals(expected, doubleArray.getDouble(i), 0);
+      assertEquals(expected, ints[i]);
+      assertEquals(expected, longs[i]);
+      assertEquals(expected, doubles[i], 0);
+    }
+  }
+
+  @Test
+  public void testAdd() {
+    assertSameValues();
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      int value = randInt();
+      intArray.addInt(index, value);
+      longArray.addLong(index, value);
+      doubleArray.addDouble(index, value);
+      truthList.add(index, value);
+    }
+    assertSameValues();
+  }
+
+  @Test
+  public void testRemove() {
+    while (truthList.size() != 0) {
+      int index = randomIndexInList(truthList);
+      int expected = truthList.remove(index);
+      assertEquals(expected, intArray.removeAt(index));
+      assertEquals(expected, longArray.removeAt(index));
+      assertEquals(expected, doubleArray.removeAt(index), 0);
+    }
+    assertTrue(intArray.isEmpty());
+    assertTrue(longArray.isEmpty());
+    assertTrue(doubleArray.isEmpty());
+  }
+
+  @Test
+  public void testSetAndIndexOf() {
+    assertEquals(3, intArray.setInt(3, -7));
+    assertEquals(3, longArray.setLong(3, -7));
+    assertEquals(3, doubleArray.setDouble(3, -7), 0);
+    truthList.set(3, -7);
+    assertSameValues();
+
+    assertEquals(3, intArray.indexOf(-7));
+    assertEquals(3, longArray.lastIndexOf(-7));
+    assertEquals(3, doubleArray.indexOf(-7));
+    assertFalse(intArray.contains(RANGE));
+    assertEquals(-1, longArray.indexOf(RANGE));
+    assertEquals(-1, doubleArray.lastIndexOf(RANGE));
+  }
+
+  @Test
+  public void testCapacity() {
+    intArray.ensureCapacity(INITIAL_AMOUNT * 10);
+    assertTrue(intArray.capacity() >= INITIAL_AMOUNT * 10);
+    assertSameValues();
+    intArray.trimToSize();
+    assertTrue(intArray.capacity() < INITIAL_AMOUNT * 10);
+    assertSameValues();
+
+    IntIgushArray copy = intArray.clone();
+    copy.removeAt(0);
+    copy.addInt(0, -1);
+    assertSameValues();
+
+    intArray.clear();
+    assertTrue(intArray.isEmpty());
+    assertEquals(0, new IntIgushArray(new int[0]).size());
+    assertArrayEquals(new int[]{1, 2, 3}, new IntIgushArray(new int[]{1, 2, 3}).toArray());
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> T roundTrip(T object) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (T) in.readObject();
+    }
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    assertEquals(0, roundTrip(new IntIgushArray()).size());
+    // a removal at the front leaves the rings of the fixed deques rotated
+    intArray.removeAt(0);
+    longArray.removeAt(0);
+    doubleArray.removeAt(0);
+    truthList.remove(0);
+    intArray = roundTrip(intArray);
+    longArray = roundTrip(longArray);
+    doubleArray = roundTrip(doubleArray);
+    assertSameValues();
+
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int index = randomIndexInList(truthList);
+      intArray.addInt(index, i);
+      longArray.addLong(index, i);
+      doubleArray.addDouble(index, i);
+      truthList.add(index, i);
+    }
+    assertSameValues();
+  }
+
+  @Test
+  public void testListView() {
+    List<Integer> view = intArray.asList();
+    assertEquals(truthList, view);
+    view.add(5, 100);
+    truthList.add(5, 100);
+    view.remove(0);
+    truthList.remove(0);
+    assertArrayEquals(truthList.stream().mapToInt(Integer::intValue).toArray(), intArray.toArray());
+    assertEquals(truthList, new ArrayList<>(view));
+
+    List<Double> doubleView = doubleArray.asList();
+    assertEquals((Double) 1.0, doubleView.get(1));
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.junit.Before;
+import org.junit.Test;
+import stonet2000.igusharray.SortedIgushArray;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestSortedIgushArray {
+
+  static final int INITIAL_AMOUNT = 55; // amount of initial values in SortedIgushArray for testing
+  static final int ADD_AMOUNT = 150; // amount of values to add for testing
+  static final int RANGE = 100; // range of values to add, namely [-RANGE/2, RANGE/2], small so there are duplicates
+
+  SortedIgushArray<Integer> sortedArray;
+  List<Integer> truthList; // kept sorted with Collections.sort
+
+  @Before
+  public void setUp() {
+    sortedArray = new SortedIgushArray<>();
+    truthList = new ArrayList<>();
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      int value = randInt();
+      sortedArray.add(value);
+      truthList.add(value);
+    }
+    Collections.sort(truthList);
+  }
+
+  public int randInt() {
+    return (int) (Math.random() * RANGE - RANGE / 2);
+  }
+
+  // index of the first element of truthList not less than key, or greater than key if upper
+  private int naiveBound(int key, boolean upper) {
+    int i = 0;
+    while (i < truthList.size() && (upper ? truthList.get(i) <= key : truthList.get(i) < key)) {
+      i++;
+    }
+    return i;
+  }
+
+  @Test
+  public void testInsertSorted() {
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      int value = randInt();
+      int index = sortedArray.insertSorted(value);
+      truthList.add(value);
+      Collections.sort(truthList);
+      assertEquals(value, (int) sortedArray.get(index));
+    }
+    assertEquals(truthList, sortedArray);
+  }
+
+  @Test
+  public void testSearch() {
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      sortedArray.add(i * 7 % RANGE);
+      truthList.add(i * 7 % RANGE);
+    }
+    Collections.sort(truthList);
+    for (int key = -RANGE; key <= RANGE; key++) {
+      assertEquals(naiveBound(key, false), sortedArray.lowerBound(key));
+      assertEquals(naiveBound(key, true), sortedArray.upperBound(key));
+      assertEquals(naiveBound(key, false), sortedArray.rank(key));
+      assertEquals(truthList.indexOf(key), sortedArray.indexOf(key));
+      assertEquals(truthList.lastIndexOf(key), sortedArray.lastIndexOf(key));
+      assertEquals(Collections.frequency(truthList, key), sortedArray.count(key));
+      int found = sortedArray.binarySearch(key);
+      if (truthList.contains(key)) {
+        assertEquals(truthList.indexOf(key), found);
+      } else {
+        assertEquals(-naiveBound(key, false) - 1, found);
+      }
+    }
+    assertEquals(naiveBound(10, false) - naiveBound(-10, true), sortedArray.count(-10, false, 10, false));
+    assertEquals(naiveBound(10, true) - naiveBound(-10, false), sortedArray.count(-10, true, 10, true));
+    assertEquals(0, sortedArray.count(10, true, -10, true));
+  }
+
+  @Test
+  public void testRemove() {
+    for (int i = 0; i < INITIAL_AMOUNT; i++) {
+      int value = randInt();
+      assertEquals(truthList.remove((Integer) value), sortedArray.remove((Integer) value));
+    }
+    assertEquals(truthList, sortedArray);
+    sortedArray.subList(1, 10).clear();
+    truthList.subList(1, 10).clear();
+    assertEquals(truthList, sortedArray);
+  }
+
+  @Test
+  public void testAddAll() {
+    List<Integer> batch = new ArrayList<>();
+    for (int i = 0; i < ADD_AMOUNT; i++) {
+      batch.add(randInt());
+    }
+    // a small batch is inserted, a large one is merged and one after every element is appended
+    sortedArray.addAll(batch.subList(0, 3));
+    sortedArray.addAll(batch.subList(3, ADD_AMOUNT));
+    sortedArray.addAll(Arrays.asList(RANGE, RANGE + 1));
+    truthList.addAll(batch);
+    truthList.addAll(Arrays.asList(RANGE, RANGE + 1));
+    Collections.sort(truthList);
+    assertEquals(truthList, sortedArray);
+  }
+
+  @Test
+  public void testComparator() {
+    SortedIgushArray<String> strings = new SortedIgushArray<>(Comparator.comparing(String::length));
+    strings.add("ccc");
+    strings.add("a");
+    strings.add("bb");
+    strings.add("b");
+    // equal elements keep the order they were inserted in
+    assertEquals(Arrays.asList("a", "b", "bb", "ccc"), strings);
+    assertEquals(2, strings.count("z"));
+    assertEquals(0, strings.indexOf("z"));
+    assertEquals(1, strings.lastIndexOf("z"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetUnsupported() {
+    sortedArray.set(0, 1);
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.junit.Test;
+import stonet2000.igusharray.TieredIgushArray;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestTieredIgushArray {
+
+  static final int OPERATIONS = 20000; // amount of random operations done at each depth
+  static final int MAX_DEPTH = 4; // depths 1 to MAX_DEPTH are tested
+
+  // applies the same random adds, removes and sets to a TieredIgushArray and an ArrayList
+  private void randomOperations(int depth, long seed) {
+    Random random = new Random(seed);
+    TieredIgushArray<Integer> tiered = new TieredIgushArray<>(1, depth);
+    List<Integer> truthList = new ArrayList<>();
+    for (int i = 0; i < OPERATIONS; i++) {
+      int op = random.nextInt(10);
+      int size = truthList.size();
+      if (op < 5 || size == 0) {
+        int index = op == 0 ? 0 : op == 1 ? size : random.nextInt(size + 1);
+        tiered.add(index, i);
+        truthList.add(index, i);
+      } else if (op < 9) {
+        int index = op == 5 ? 0 : op == 6 ? size - 1 : random.nextInt(size);
+        assertEquals(truthList.remove(index), tiered.remove(index));
+      } else {
+        int index = random.nextInt(size);
+        assertEquals(truthList.set(index, -i), tiered.set(index, -i));
+      }
+      assertEquals(truthList.size(), tiered.size());
+    }
+    assertEquals(truthList, tiered);
+  }
+
+  @Test
+  public void testRandomOperations() {
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      randomOperations(depth, depth);
+    }
+  }
+
+  @Test
+  public void testGrowAndGet() {
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      TieredIgushArray<Integer> tiered = new TieredIgushArray<>(0, depth);
+      for (int i = 0; i < 5000; i++) {
+        tiered.add(i);
+      }
+      assertEquals(5000, tiered.size());
+      assertTrue(tiered.capacity() >= 5000);
+      for (int i = 0; i < 5000; i++) {
+        assertEquals(i, (int) tiered.get(i));
+      }
+      int[] next = {0};
+      tiered.forEach(e -> assertEquals(next[0]++, (int) e));
+      assertEquals(5000, next[0]);
+    }
+  }
+
+  @Test
+  public void testFrontAndBack() {
+    // keeps the size constant so the same blocks have their last element moved to the front over and over
+    TieredIgushArray<Integer> tiered = new TieredIgushArray<>(1000, 3);
+    Deque<Integer> truthDeque = new ArrayDeque<>();
+    for (int i = 0; i < 1000; i++) {
+      tiered.add(i);
+      truthDeque.add(i);
+    }
+    for (int i = 0; i < 3000; i++) {
+      if (i % 2 == 0) {
+        tiered.add(0, -i);
+        truthDeque.addFirst(-i);
+        assertEquals(truthDeque.pollLast(), tiered.remove(tiered.size() - 1));
+      } else {
+        tiered.add(i);
+        truthDeque.addLast(i);
+        assertEquals(truthDeque.pollFirst(), tiered.remove(0));
+      }
+    }
+    assertEquals(new ArrayList<>(truthDeque), tiered);
+  }
+
+  @Test
+  public void testTrimAndClear() {
+    TieredIgushArray<Integer> tiered = new TieredIgushArray<>(new ArrayList<>(Arrays.asList(5, 4, 3, 2, 1)), 2);
+    tiered.ensureCapacity(10000);
+    assertTrue(tiered.capacity() >= 10000);
+    tiered.trimToSize();
+    assertTrue(tiered.capacity() < 10000);
+    assertEquals(Arrays.asList(5, 4, 3, 2, 1), tiered);
+    tiered.clear();
+    assertTrue(tiered.isEmpty());
+    tiered.add(0, 7);
+    assertEquals(Collections.singletonList(7), tiered);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    TieredIgushArray<Integer> tiered = new TieredIgushArray<>();
+    tiered.add(1);
+    tiered.add(2, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalDepth() {
+    new TieredIgushArray<Integer>(10, 0);
+  }
+}
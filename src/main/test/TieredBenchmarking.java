@@ -0,0 +1,135 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2020 StoneT2000 (Stone Tao) email <stonezt2019@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package test;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import stonet2000.igusharray.IgushArray;
+import stonet2000.igusharray.TieredIgushArray;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares TieredIgushArray of a few depths with the two levels of IgushArray on large lists. Each insert benchmark
+ * adds an element at a random index and removes one at another, so the size stays the same. The lists hold one
+ * boxed value many times over, but the largest size still needs a heap of several gigabytes, hence the -Xmx of the
+ * fork
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+
+public class TieredBenchmarking {
+
+    static final int SEED = 31415926;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TieredBenchmarking.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Measure inserting and removing an element at random indices of IgushArray
+     */
+    @Benchmark
+    public Integer IgushArrayInsertRemove(IgushArrayState state) {
+        state.list.add(state.rand.nextInt(state.listSize), state.value);
+        return state.list.remove(state.rand.nextInt(state.listSize));
+    }
+
+    /**
+     * Measure inserting and removing an element at random indices of TieredIgushArray
+     */
+    @Benchmark
+    public Integer TieredIgushArrayInsertRemove(TieredIgushArrayState state) {
+        state.list.add(state.rand.nextInt(state.listSize), state.value);
+        return state.list.remove(state.rand.nextInt(state.listSize));
+    }
+
+    /**
+     * Measure getting the element at a random index of IgushArray
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Integer IgushArrayGet(IgushArrayState state) {
+        return state.list.get(state.rand.nextInt(state.listSize));
+    }
+
+    /**
+     * Measure getting the element at a random index of TieredIgushArray
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Integer TieredIgushArrayGet(TieredIgushArrayState state) {
+        return state.list.get(state.rand.nextInt(state.listSize));
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sizes {
+        @Param({"10000000", "100000000", "500000000"})
+        public int listSize;
+        Integer value = 42;
+        Random rand = new Random(SEED);
+    }
+
+    @State(Scope.Thread)
+    public static class IgushArrayState extends Sizes {
+        List<Integer> list;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            list = new IgushArray<>(listSize);
+            for (int i = 0; i < listSize; i++) {
+                list.add(value);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TieredIgushArrayState extends Sizes {
+        @Param({"2", "3", "4"})
+        public int depth;
+        List<Integer> list;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            list = new TieredIgushArray<>(listSize, depth);
+            for (int i = 0; i < listSize; i++) {
+                list.add(value);
+            }
+        }
+    }
+}